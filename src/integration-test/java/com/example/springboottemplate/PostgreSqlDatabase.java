@@ -0,0 +1,84 @@
+package com.example.springboottemplate;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PostgreSQL of the integration tests that need what H2 does not do: partitions, COPY, LISTEN/NOTIFY, the vendor
+ * migrations. An embedded server of the version of docker-compose.yaml, started once for all the tests, with a
+ * database of its own for each test class.
+ */
+public final class PostgreSqlDatabase {
+
+    private static EmbeddedPostgres server;
+
+    private PostgreSqlDatabase() {
+    }
+
+    /**
+     * Creates the database, and registers the properties connecting the application to it
+     */
+    public static void register(DynamicPropertyRegistry registry, String database) {
+        properties(database).forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    /**
+     * Creates the database
+     * @return the properties connecting the application to it, migrated like in production
+     */
+    public static synchronized Map<String, String> properties(String database) {
+        EmbeddedPostgres postgres = server();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS \"" + database + "\"");
+            statement.execute("CREATE DATABASE \"" + database + "\"");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the database " + database, e);
+        }
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", database));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        // The schema settings of application.yaml, which the one of the tests hides
+        properties.put("spring.flyway.locations", "classpath:/db/migration,classpath:/db/vendor/{vendor}");
+        properties.put("spring.flyway.schemas", "employee");
+        properties.put("spring.datasource.hikari.schema", "employee");
+        properties.put("spring.docker.compose.enabled", "false");
+        return properties;
+    }
+
+    /**
+     * @return the properties as command line arguments, for the instances started next to the one of the test
+     */
+    public static List<String> arguments(Map<String, String> properties) {
+        return properties.entrySet().stream().map(property -> "--" + property.getKey() + "=" + property.getValue()).toList();
+    }
+
+    private static EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    // The process is exiting anyway
+                }
+            }, "postgresql-shutdown"));
+        }
+        return server;
+    }
+}
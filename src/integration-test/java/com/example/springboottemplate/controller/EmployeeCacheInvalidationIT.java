@@ -0,0 +1,117 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.SpringBootTemplateApplication;
+import com.example.springboottemplate.entity.Employee;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two instances sharing a database, the one of the test and another started next to it: the employees cached by
+ * the other one are evicted when the first one changes them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        EmployeeCacheInvalidationIT.SHARED_DATABASE,
+        "employee.cache.invalidation.enabled=true",
+        "employee.cache.invalidation.poll-interval=100ms"})
+@DirtiesContext
+public class EmployeeCacheInvalidationIT {
+
+    static final String SHARED_DATABASE =
+            "spring.datasource.url=jdbc:h2:mem:employee-cache-invalidation;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private static ConfigurableApplicationContext otherInstance;
+
+    private static TestRestTemplate otherRestTemplate;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @BeforeAll
+    public static void startOtherInstance() {
+        // Arguments rather than default properties, which application.yaml would override
+        otherInstance = new SpringApplicationBuilder(SpringBootTemplateApplication.class)
+                .run("--" + SHARED_DATABASE,
+                        "--employee.cache.invalidation.enabled=true",
+                        "--employee.cache.invalidation.poll-interval=100ms",
+                        "--spring.docker.compose.enabled=false",
+                        "--server.port=0");
+        int port = ((WebServerApplicationContext) otherInstance).getWebServer().getPort();
+        otherRestTemplate = new TestRestTemplate();
+        otherRestTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + port));
+    }
+
+    @AfterAll
+    public static void stopOtherInstance() {
+        otherInstance.close();
+    }
+
+    @Test
+    public void testUpdateOnOneInstanceEvictsTheOther() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Cached"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        // Cached by the other instance
+        assertEquals("Cached", otherRestTemplate.getForObject(url, Employee.class).getFirstName());
+
+        created.setFirstName("Updated");
+        testRestTemplate.put("/employee/v1/", created);
+
+        assertTrue(eventually(url, employee -> employee != null && "Updated".equals(employee.getFirstName())));
+    }
+
+    @Test
+    public void testDeleteOnOneInstanceEvictsTheOther() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Deleted"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        assertEquals("Deleted", otherRestTemplate.getForObject(url, Employee.class).getFirstName());
+
+        testRestTemplate.delete(url);
+
+        assertTrue(eventually(url, employee -> employee == null));
+        assertNull(otherRestTemplate.getForObject(url, Employee.class));
+    }
+
+    /**
+     * @return true when the other instance returned an employee matching the condition within the timeout
+     */
+    private static boolean eventually(String url, Predicate<Employee> condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.test(otherRestTemplate.getForObject(url, Employee.class))) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static Employee newEmployee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Doe");
+        employee.setJoinedOn(LocalDate.now());
+        return employee;
+    }
+}
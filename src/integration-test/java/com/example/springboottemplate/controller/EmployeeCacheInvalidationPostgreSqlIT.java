@@ -0,0 +1,190 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.PostgreSqlDatabase;
+import com.example.springboottemplate.SpringBootTemplateApplication;
+import com.example.springboottemplate.entity.Employee;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The two instances of EmployeeCacheInvalidationIT on PostgreSQL, polling so rarely that only the notifications of
+ * the V7_1 and V9_1 triggers evict the employees within NOTIFIED_MILLIS. The listening connection of this instance
+ * is unwrapped through datasource-proxy and Hikari; the other instance has read replicas, so that its connection is
+ * unwrapped through LazyConnectionDataSourceProxy too.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.cache.invalidation.enabled=true",
+        "employee.cache.invalidation.poll-interval=" + EmployeeCacheInvalidationPostgreSqlIT.POLL_INTERVAL_MILLIS + "ms",
+        "employee.changes.poll-interval=" + EmployeeCacheInvalidationPostgreSqlIT.POLL_INTERVAL_MILLIS + "ms"})
+@DirtiesContext
+public class EmployeeCacheInvalidationPostgreSqlIT {
+
+    static final long POLL_INTERVAL_MILLIS = 10000;
+
+    /**
+     * Well before the poll-interval of the invalidator and of the relay
+     */
+    private static final long NOTIFIED_MILLIS = 3000;
+
+    private static final String OTHER_INSTANCE = "other-instance";
+
+    private static final String OTHER_INSTANCE_LISTENER = "SELECT pid FROM pg_stat_activity WHERE application_name = '"
+            + OTHER_INSTANCE + "' AND query = 'LISTEN employee_change'";
+
+    private static Map<String, String> database;
+
+    private static ConfigurableApplicationContext otherInstance;
+
+    private static TestRestTemplate otherRestTemplate;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void startOtherInstance() {
+        database = PostgreSqlDatabase.properties("employee_cache_invalidation");
+        List<String> arguments = new ArrayList<>(PostgreSqlDatabase.arguments(database));
+        arguments.addAll(List.of(
+                "--employee.cache.invalidation.enabled=true",
+                "--employee.cache.invalidation.poll-interval=" + POLL_INTERVAL_MILLIS + "ms",
+                "--employee.changes.poll-interval=" + POLL_INTERVAL_MILLIS + "ms",
+                "--employee.datasource.replica-urls=" + database.get("spring.datasource.url"),
+                "--spring.datasource.hikari.data-source-properties.ApplicationName=" + OTHER_INSTANCE,
+                "--server.port=0"));
+        otherInstance = new SpringApplicationBuilder(SpringBootTemplateApplication.class)
+                .run(arguments.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) otherInstance).getWebServer().getPort();
+        otherRestTemplate = new TestRestTemplate();
+        otherRestTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:" + port));
+    }
+
+    @DynamicPropertySource
+    static void postgreSql(DynamicPropertyRegistry registry) {
+        database.forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @AfterAll
+    public static void stopOtherInstance() {
+        otherInstance.close();
+    }
+
+    @Test
+    public void testUpdateOnOneInstanceNotifiesTheOther() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Cached"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        assertEquals("Cached", otherRestTemplate.getForObject(url, Employee.class).getFirstName());
+
+        created.setFirstName("Updated");
+        testRestTemplate.put("/employee/v1/", created);
+
+        assertTrue(eventually(NOTIFIED_MILLIS, firstName(otherRestTemplate, url, "Updated")));
+    }
+
+    @Test
+    public void testUpdateOnTheOtherInstanceNotifiesThisOne() {
+        Employee created = otherRestTemplate.postForObject("/employee/v1/", newEmployee("Cached"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        assertEquals("Cached", testRestTemplate.getForObject(url, Employee.class).getFirstName());
+
+        created.setFirstName("Updated");
+        otherRestTemplate.put("/employee/v1/", created);
+
+        assertTrue(eventually(NOTIFIED_MILLIS, firstName(testRestTemplate, url, "Updated")));
+    }
+
+    @Test
+    public void testDeleteOnOneInstanceNotifiesTheOther() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Deleted"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        assertEquals("Deleted", otherRestTemplate.getForObject(url, Employee.class).getFirstName());
+
+        testRestTemplate.delete(url);
+
+        assertTrue(eventually(NOTIFIED_MILLIS, () -> otherRestTemplate.getForObject(url, Employee.class) == null));
+    }
+
+    @Test
+    public void testLostListenerFallsBackToPollingThenReconnects() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Polled"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        assertEquals("Polled", otherRestTemplate.getForObject(url, Employee.class).getFirstName());
+        List<Integer> listeners = jdbcTemplate.queryForList(OTHER_INSTANCE_LISTENER, Integer.class);
+        assertEquals(1, listeners.size());
+
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(?)", Boolean.class, listeners.get(0));
+        created.setFirstName("Updated");
+        created = testRestTemplate.exchange("/employee/v1/", HttpMethod.PUT, new HttpEntity<>(created), Employee.class)
+                .getBody();
+
+        // Evicted at the next polls of the relay and of the invalidator
+        assertTrue(eventually(3 * POLL_INTERVAL_MILLIS, firstName(otherRestTemplate, url, "Updated")));
+        assertTrue(eventually(2 * POLL_INTERVAL_MILLIS, () -> {
+            List<Integer> reconnected = jdbcTemplate.queryForList(OTHER_INSTANCE_LISTENER, Integer.class);
+            return reconnected.size() == 1 && !reconnected.equals(listeners);
+        }));
+
+        created.setFirstName("Notified");
+        testRestTemplate.put("/employee/v1/", created);
+
+        assertTrue(eventually(NOTIFIED_MILLIS, firstName(otherRestTemplate, url, "Notified")));
+    }
+
+    private static BooleanSupplier firstName(TestRestTemplate restTemplate, String url, String firstName) {
+        Predicate<Employee> condition = employee -> employee != null && firstName.equals(employee.getFirstName());
+        return () -> condition.test(restTemplate.getForObject(url, Employee.class));
+    }
+
+    /**
+     * @return true when the condition was met within the timeout
+     */
+    private static boolean eventually(long timeoutMillis, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static Employee newEmployee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Doe");
+        employee.setJoinedOn(LocalDate.now());
+        return employee;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.dto.EmployeeChangePage;
+import com.example.springboottemplate.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.changes.poll-interval=100ms"})
+public class EmployeeChangeControllerIT {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void testGetChangesSince() {
+        long since = lastSequence();
+
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Changed"), Employee.class);
+        testRestTemplate.delete("/employee/v1/" + created.getId());
+
+        // Relayed to the feed within a poll-interval, after the changes of the other tests not relayed yet
+        EmployeeChangePage page;
+        List<EmployeeChange> changes;
+        long deadline = System.currentTimeMillis() + 5000;
+        do {
+            page = testRestTemplate.getForObject("/employee/v1/changes/?since=" + since, EmployeeChangePage.class);
+            changes = page.getChanges().stream()
+                    .filter(change -> change.getEmployeeId().equals(created.getId()))
+                    .toList();
+        } while (changes.size() < 2 && System.currentTimeMillis() < deadline);
+
+        assertEquals(2, changes.size());
+        assertEquals(ChangeOperation.CREATED, changes.get(0).getOperation());
+        assertEquals(created.getId(), changes.get(0).getEmployeeId());
+        assertEquals(ChangeOperation.DELETED, changes.get(1).getOperation());
+        assertNull(changes.get(1).getEmployee());
+        assertEquals(changes.get(1).getSequence(), page.getNextSince());
+    }
+
+    @Test
+    public void testGetExpiredChanges() {
+        // The feed starts at sequence 1, a position further back can only be a pruned one
+        testRestTemplate.postForObject("/employee/v1/", newEmployee("Expired"), Employee.class);
+
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/employee/v1/changes/?since=-5", String.class);
+
+        assertEquals(HttpStatus.GONE, response.getStatusCode());
+    }
+
+    @Test
+    public void testStreamChanges() throws Exception {
+        long since = lastSequence();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/v1/changes/"))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", String.valueOf(since))
+                .build();
+        CompletableFuture<String> firstEvent = HttpClient.newHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply(response -> {
+                    try (Stream<String> lines = response.body()) {
+                        return lines.filter(line -> line.startsWith("data:")).findFirst().orElseThrow();
+                    }
+                });
+
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Streamed"), Employee.class);
+
+        String data = firstEvent.get(10, TimeUnit.SECONDS);
+        assertTrue(data.contains("\"employeeId\":" + created.getId()), data);
+        assertTrue(data.contains("\"operation\":\"CREATED\""), data);
+        assertTrue(data.contains("\"firstName\":\"Streamed\""), data);
+    }
+
+    private long lastSequence() {
+        long since = 0;
+        EmployeeChangePage page;
+        do {
+            page = testRestTemplate.getForObject("/employee/v1/changes/?since=" + since + "&limit=500", EmployeeChangePage.class);
+            since = page.getNextSince();
+        } while (!page.getChanges().isEmpty());
+        return since;
+    }
+
+    private static Employee newEmployee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Doe");
+        employee.setJoinedOn(LocalDate.now());
+        return employee;
+    }
+}
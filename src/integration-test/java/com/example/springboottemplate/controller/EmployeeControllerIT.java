@@ -1,5 +1,6 @@
 package com.example.springboottemplate.controller;
 
+import com.example.springboottemplate.dto.EmployeeMultiGetResult;
 import com.example.springboottemplate.entity.Employee;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.test.annotation.DirtiesContext;
 
 import java.time.LocalDate;
@@ -40,6 +42,21 @@ public class EmployeeControllerIT {
         employee.setUpdatedAt(LocalDateTime.now());
     }
 
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    @Test
+    public void testCreateAndGetEmployeeInBinaryFormats() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-jackson-smile"));
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        ResponseEntity<Employee> created = testRestTemplate.exchange("/employee/v1/", HttpMethod.POST,
+                new HttpEntity<>(employee, headers), Employee.class);
+
+        assertEquals(HttpStatus.OK, created.getStatusCode());
+        assertEquals(MediaType.APPLICATION_CBOR, created.getHeaders().getContentType());
+        assertEquals("John", created.getBody().getFirstName());
+        assertEquals(employee.getDateOfBirth(), created.getBody().getDateOfBirth());
+    }
+
     @Test
     public void testGetAllEmployees() {
         // Test the GET request
@@ -75,6 +92,16 @@ public class EmployeeControllerIT {
         assertEquals(1, employee.getId());
     }
 
+    @Test
+    public void testGetEmployeesByIds() {
+        ResponseEntity<EmployeeMultiGetResult> response = testRestTemplate.getForEntity(
+                "/employee/v1/by-ids?ids=3,100000,1", EmployeeMultiGetResult.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(3, 1), response.getBody().getEmployees().stream().map(Employee::getId).toList());
+        assertEquals(List.of(100000), response.getBody().getMissingIds());
+    }
+
     @Test
     public void testSaveEmployee() {
         // Test the POST request
@@ -115,6 +142,44 @@ public class EmployeeControllerIT {
         assertEquals(30, responseEmployee.getAge());
     }
 
+    @Test
+    public void testUpdateEmployeeWithStaleVersion() {
+        // Test the PUT request with a version the employee never had
+        employee.setId(4);
+        employee.setVersion(99);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        HttpEntity<Employee> requestEntity = new HttpEntity<>(employee, headers);
+        ResponseEntity<String> response = testRestTemplate.exchange("/employee/v1/", HttpMethod.PUT, requestEntity, String.class);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Sondland", testRestTemplate.getForObject("/employee/v1/4", Employee.class).getLastName());
+    }
+
+    @Test
+    public void testPatchEmployeeWithStaleETag() {
+        // Read the current version of the employee
+        String url = "/employee/v1/3";
+        ResponseEntity<Employee> getResponse = testRestTemplate.getForEntity(url, Employee.class);
+        String eTag = getResponse.getHeaders().getETag();
+
+        // Test the PATCH request, conditional on that version. HttpURLConnection, the default client, has no PATCH
+        testRestTemplate.getRestTemplate().setRequestFactory(new JdkClientHttpRequestFactory());
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Content-Type", "application/json");
+        headers.setIfMatch(eTag);
+        HttpEntity<String> requestEntity = new HttpEntity<>("{\"designation\":\"Manager\"}", headers);
+        ResponseEntity<Void> response = testRestTemplate.exchange(url, HttpMethod.PATCH, requestEntity, Void.class);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        assertEquals("Manager", testRestTemplate.getForObject(url, Employee.class).getDesignation());
+        assertEquals(response.getHeaders().getETag(), testRestTemplate.getForEntity(url, Employee.class).getHeaders().getETag());
+
+        // The same version again is a conflict
+        ResponseEntity<Void> staleResponse = testRestTemplate.exchange(url, HttpMethod.PATCH, requestEntity, Void.class);
+        assertEquals(HttpStatus.CONFLICT, staleResponse.getStatusCode());
+    }
+
     @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
     @Test
     public void testDeleteEmployeeById() {
@@ -0,0 +1,63 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.IngestResult;
+import com.example.springboottemplate.dto.IngestStatus;
+import com.example.springboottemplate.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.ingest.enabled=true",
+        "employee.ingest.journal-file=target/ingest-it/employee-ingest.journal"})
+public class EmployeeIngestControllerIT {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    public void testIngestEmployee() throws InterruptedException {
+        Employee employee = new Employee();
+        employee.setFirstName("Ingested");
+        employee.setLastName("Doe");
+        employee.setJoinedOn(LocalDate.now());
+
+        ResponseEntity<IngestResult> response = testRestTemplate.postForEntity("/employee/v1/ingest/", employee, IngestResult.class);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertNotNull(response.getHeaders().getLocation());
+
+        IngestResult status = response.getBody();
+        for (int i = 0; i < 100 && status.getStatus() == IngestStatus.PENDING; i++) {
+            Thread.sleep(100);
+            status = testRestTemplate.getForObject(response.getHeaders().getLocation(), IngestResult.class);
+        }
+        assertEquals(IngestStatus.CREATED, status.getStatus());
+
+        ResponseEntity<Employee> created = testRestTemplate.getForEntity("/employee/v1/" + status.getEmployeeId(), Employee.class);
+        assertEquals(HttpStatus.OK, created.getStatusCode());
+        assertEquals("Ingested", created.getBody().getFirstName());
+    }
+
+    @Test
+    public void testIngestInvalidEmployee() {
+        ResponseEntity<String> response = testRestTemplate.postForEntity("/employee/v1/ingest/", new Employee(), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void testGetUnknownIngestStatus() {
+        ResponseEntity<String> response = testRestTemplate.getForEntity("/employee/v1/ingest/unknown", String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.PostgreSqlDatabase;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The employee table partitioned by V8_1 on PostgreSQL: the seeded employees are moved to the partitions, and the
+ * ids of the sequence replacing the identity column follow theirs. Archived employees are restored with their id.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employee.archive.enabled=true",
+        // Older than the seeded employees, only the ones the tests make cold are archived
+        "employee.archive.cold-after=36500d"})
+@DirtiesContext
+public class EmployeePartitioningIT {
+
+    private static final int SEEDED_EMPLOYEES = 20;
+
+    @DynamicPropertySource
+    static void postgreSql(DynamicPropertyRegistry registry) {
+        PostgreSqlDatabase.register(registry, "employee_partitioning");
+    }
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeArchiveService employeeArchiveService;
+
+    @Test
+    public void testMigrationsPartitionTheSeededEmployees() {
+        assertEquals("9.1", jdbcTemplate.queryForObject(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank DESC LIMIT 1", String.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history WHERE NOT success", Integer.class));
+        assertEquals(8, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_inherits WHERE inhparent = 'employee'::regclass", Integer.class));
+        assertEquals(false, jdbcTemplate.queryForObject(
+                "SELECT to_regclass('employee_unpartitioned') IS NOT NULL", Boolean.class));
+        // Each seeded employee in the partition of its id, none lost or duplicated
+        assertEquals(SEEDED_EMPLOYEES, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT id) FROM employee WHERE id <= " + SEEDED_EMPLOYEES, Integer.class));
+        assertEquals(SEEDED_EMPLOYEES, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM employee WHERE id <= " + SEEDED_EMPLOYEES + " AND tableoid <> 'employee'::regclass",
+                Integer.class));
+        assertEquals("employee_pkey", jdbcTemplate.queryForObject(
+                "SELECT conname FROM pg_constraint WHERE conrelid = 'employee'::regclass AND contype = 'p'", String.class));
+    }
+
+    @Test
+    public void testCreateGetAndSearchEmployee() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Partitioned"), Employee.class);
+
+        // Numbered after the seeded employees by the sequence
+        assertTrue(created.getId() > SEEDED_EMPLOYEES);
+        Employee found = testRestTemplate.getForObject("/employee/v1/" + created.getId(), Employee.class);
+        assertEquals("Partitioned", found.getLastName());
+        EmployeePage page = testRestTemplate.getForObject("/employee/v1/search?lastNamePrefix=partitioned",
+                EmployeePage.class);
+        assertEquals(List.of(created.getId()), page.getEmployees().stream().map(Employee::getId).toList());
+        // A seeded employee, found in its partition
+        assertEquals("Calleja", testRestTemplate.getForObject("/employee/v1/1", Employee.class).getLastName());
+    }
+
+    @Test
+    public void testArchiveAndRestoreEmployee() {
+        Employee created = testRestTemplate.postForObject("/employee/v1/", newEmployee("Archived"), Employee.class);
+        String url = "/employee/v1/" + created.getId();
+        jdbcTemplate.update("UPDATE employee SET updated_at = timestamp '1900-01-01' WHERE id = ?", created.getId());
+
+        assertEquals(1, employeeArchiveService.archiveColdEmployees());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee WHERE id = ?", Integer.class,
+                created.getId()));
+        Employee archived = testRestTemplate.getForObject(url, Employee.class);
+        assertEquals("Archived", archived.getLastName());
+        assertTrue(testRestTemplate.getForObject("/employee/v1/search?lastNamePrefix=archived", EmployeePage.class)
+                .getEmployees().isEmpty());
+
+        archived.setFirstName("Restored");
+        ResponseEntity<Employee> restored = testRestTemplate.exchange("/employee/v1/", HttpMethod.PUT,
+                new HttpEntity<>(archived), Employee.class);
+
+        assertEquals(HttpStatus.OK, restored.getStatusCode());
+        assertEquals(created.getId(), restored.getBody().getId());
+        assertEquals(archived.getVersion() + 1, restored.getBody().getVersion());
+        assertEquals("Restored", jdbcTemplate.queryForObject("SELECT first_name FROM employee WHERE id = ?",
+                String.class, created.getId()));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM employee_archive_entry WHERE employee_id = ?",
+                Integer.class, created.getId()));
+        EmployeePage page = testRestTemplate.getForObject("/employee/v1/search?lastNamePrefix=archived",
+                EmployeePage.class);
+        assertEquals(List.of(created.getId()), page.getEmployees().stream().map(Employee::getId).toList());
+        // The sequence still numbers the new employees after the restored one
+        Employee next = testRestTemplate.postForObject("/employee/v1/", newEmployee("Next"), Employee.class);
+        assertNotNull(next);
+        assertTrue(next.getId() > created.getId());
+    }
+
+    private static Employee newEmployee(String lastName) {
+        Employee employee = new Employee();
+        employee.setFirstName("Jane");
+        employee.setLastName(lastName);
+        employee.setAge(30);
+        employee.setDesignation("Partition tester");
+        employee.setJoinedOn(LocalDate.now());
+        return employee;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.ImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext
+public class EmployeeTransferControllerIT {
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    public void testExportAndImportCsv() throws IOException {
+        HttpHeaders accept = new HttpHeaders();
+        accept.setAccept(List.of(MediaType.parseMediaType(EmployeeTransferController.TEXT_CSV_VALUE)));
+        ResponseEntity<String> export = testRestTemplate.exchange("/employee/v1/export", HttpMethod.GET,
+                new HttpEntity<>(accept), String.class);
+
+        assertEquals(HttpStatus.OK, export.getStatusCode());
+        String[] lines = export.getBody().split("\n");
+        assertTrue(lines[0].startsWith("id,firstName,lastName,"), lines[0]);
+        long exported = lines.length - 1;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(EmployeeTransferController.TEXT_CSV_VALUE));
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        ResponseEntity<ImportResult> response = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(gzip(export.getBody()), headers), ImportResult.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(exported, response.getBody().getImported());
+        assertEquals(0, response.getBody().getRejected());
+        // Every employee once more, with a new id
+        assertEquals(2 * exported, testRestTemplate.getForObject("/employee/v1/", List.class).size());
+    }
+
+    @Test
+    public void testImportNdjson() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        String ndjson = """
+                {"firstName": "Imported", "lastName": "Doe", "joinedOn": "2024-06-05"}
+                {"lastName": "Nameless"}
+                """;
+
+        ResponseEntity<ImportResult> response = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(ndjson, headers), ImportResult.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getImported());
+        assertEquals(1, response.getBody().getRejected());
+        assertEquals(1, response.getBody().getErrors().get(0).getIndex());
+    }
+
+    @Test
+    public void testImportTruncatedNdjson() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        String ndjson = """
+                {"firstName": "Truncated", "lastName": "Doe"}
+                {"firstName": "Trun""";
+
+        ResponseEntity<String> response = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(ndjson, headers), String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return compressed.toByteArray();
+    }
+}
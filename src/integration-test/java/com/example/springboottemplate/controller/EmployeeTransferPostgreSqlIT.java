@@ -0,0 +1,201 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.PostgreSqlDatabase;
+import com.example.springboottemplate.dto.ImportResult;
+import com.example.springboottemplate.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports on PostgreSQL, streamed with COPY: values that mean something to the CSV format of COPY are stored as they
+ * were sent, and exported unchanged.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext
+public class EmployeeTransferPostgreSqlIT {
+
+    @DynamicPropertySource
+    static void postgreSql(DynamicPropertyRegistry registry) {
+        PostgreSqlDatabase.register(registry, "employee_transfer");
+    }
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testImportAndExportEdgeValues() throws IOException {
+        // Imports on this connection take the COPY path
+        assertTrue(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                connection.isWrapperFor(PGConnection.class)));
+        List<Employee> employees = List.of(
+                employee("Edge \"quoted\"", "", null, "Line 1\nLine 2\r\nLine 3", "+1 (555) 010-0000", 0,
+                        LocalDate.of(2024, 2, 29), LocalDate.of(1900, 1, 1)),
+                employee("Edge, comma", "\\.", "\"", ",", "", null, null, null),
+                employee("Edge \\ backslash", "O'Neil", "NULL", "\\.\n\\.", null, 120,
+                        LocalDate.of(1970, 1, 1), LocalDate.of(2000, 12, 31)),
+                employee("Edge ünïcödé 山田", "  spaced  ", "\t", "\"\"", "\\N", 1,
+                        LocalDate.of(9999, 12, 31), LocalDate.of(1, 1, 1)));
+        StringBuilder ndjson = new StringBuilder();
+        for (Employee employee : employees) {
+            ndjson.append(objectMapper.writeValueAsString(employee)).append('\n');
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        ResponseEntity<ImportResult> response = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(ndjson.toString(), headers), ImportResult.class);
+
+        LocalDateTime after = LocalDateTime.now();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(employees.size(), response.getBody().getImported());
+        // Empty strings and NULLs are told apart in the table
+        assertEquals(List.of("Edge \"quoted\""), jdbcTemplate.queryForList(
+                "SELECT first_name FROM employee WHERE first_name LIKE 'Edge%' AND last_name = ''", String.class));
+        assertEquals(List.of("Edge \"quoted\""), jdbcTemplate.queryForList(
+                "SELECT first_name FROM employee WHERE first_name LIKE 'Edge%' AND designation IS NULL", String.class));
+        assertEquals(List.of("Edge, comma"), jdbcTemplate.queryForList(
+                "SELECT first_name FROM employee WHERE first_name LIKE 'Edge%' AND phone_number = ''", String.class));
+        // A creation recorded for each generated id, relayed to the feed or not yet
+        assertEquals(employees.size(), jdbcTemplate.queryForObject("SELECT count(*) FROM employee JOIN ("
+                + "SELECT employee_id FROM employee_change_staging WHERE operation = 'CREATED' UNION ALL "
+                + "SELECT employee_id FROM employee_change WHERE operation = 'CREATED') changes "
+                + "ON changes.employee_id = employee.id WHERE first_name LIKE 'Edge%'", Integer.class));
+
+        Map<String, Employee> exported = exportNdjson("Edge");
+        assertEquals(employees.size(), exported.size());
+        for (Employee employee : employees) {
+            Employee found = exported.get(employee.getFirstName());
+            assertEquals(employee, withoutGeneratedValues(found));
+            assertEquals(found.getCreatedAt(), found.getUpdatedAt());
+            assertFalse(found.getCreatedAt().isBefore(before), found.getCreatedAt() + " before " + before);
+            assertFalse(found.getCreatedAt().isAfter(after), found.getCreatedAt() + " after " + after);
+        }
+    }
+
+    @Test
+    public void testCsvExportReimportsUnchanged() {
+        // Empty CSV values are nulls, quoted ones included
+        String csv = String.join("\n",
+                "firstName,lastName,age,designation,phoneNumber,joinedOn,address,dateOfBirth",
+                "\"Csv \"\"quoted\"\"\",\"Comma, Jr.\",42,,\"\",2024-02-29,\"Line 1\nLine 2\",1984-06-01",
+                "\"Csv \\. backslash\",\"\\.\",,\"\\N\",555,,\"a,b \"\"c\"\" \\\",",
+                "");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(EmployeeTransferController.TEXT_CSV_VALUE));
+        ResponseEntity<ImportResult> imported = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(csv, headers), ImportResult.class);
+        assertEquals(HttpStatus.OK, imported.getStatusCode());
+        assertEquals(2, imported.getBody().getImported());
+        Map<String, Employee> importedEmployees = exportNdjson("Csv");
+        Employee quoted = importedEmployees.get("Csv \"quoted\"");
+        assertEquals("Comma, Jr.", quoted.getLastName());
+        assertEquals("Line 1\nLine 2", quoted.getAddress());
+        assertNull(quoted.getDesignation());
+        assertNull(quoted.getPhoneNumber());
+        Employee backslash = importedEmployees.get("Csv \\. backslash");
+        assertEquals("\\.", backslash.getLastName());
+        assertEquals("\\N", backslash.getDesignation());
+        assertEquals("a,b \"c\" \\", backslash.getAddress());
+
+        HttpHeaders accept = new HttpHeaders();
+        accept.setAccept(List.of(MediaType.parseMediaType(EmployeeTransferController.TEXT_CSV_VALUE)));
+        String export = testRestTemplate.exchange("/employee/v1/export", HttpMethod.GET, new HttpEntity<>(accept),
+                String.class).getBody();
+        ResponseEntity<ImportResult> reimported = testRestTemplate.postForEntity("/employee/v1/import",
+                new HttpEntity<>(export, headers), ImportResult.class);
+
+        assertEquals(HttpStatus.OK, reimported.getStatusCode());
+        assertEquals(0, reimported.getBody().getRejected());
+        List<Employee> copies = exportNdjsonList("Csv");
+        assertEquals(4, copies.size());
+        for (Employee copy : copies) {
+            assertEquals(withoutGeneratedValues(importedEmployees.get(copy.getFirstName())), withoutGeneratedValues(copy));
+        }
+    }
+
+    /**
+     * @return the exported employees whose first name starts with the prefix, by first name
+     */
+    private Map<String, Employee> exportNdjson(String prefix) {
+        return exportNdjsonList(prefix).stream().collect(Collectors.toMap(Employee::getFirstName, Function.identity()));
+    }
+
+    private List<Employee> exportNdjsonList(String prefix) {
+        HttpHeaders accept = new HttpHeaders();
+        accept.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        String export = testRestTemplate.exchange("/employee/v1/export", HttpMethod.GET, new HttpEntity<>(accept),
+                String.class).getBody();
+        List<Employee> employees = new ArrayList<>();
+        for (String line : export.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Employee employee = objectMapper.readValue(line, Employee.class);
+                if (employee.getFirstName().startsWith(prefix)) {
+                    employees.add(employee);
+                }
+            } catch (IOException e) {
+                throw new AssertionError("Not an employee: " + line, e);
+            }
+        }
+        return employees;
+    }
+
+    private static Employee withoutGeneratedValues(Employee employee) {
+        return employee(employee.getFirstName(), employee.getLastName(), employee.getDesignation(),
+                employee.getAddress(), employee.getPhoneNumber(), employee.getAge(), employee.getJoinedOn(),
+                employee.getDateOfBirth());
+    }
+
+    private static Employee employee(String firstName, String lastName, String designation, String address,
+                                     String phoneNumber, Integer age, LocalDate joinedOn, LocalDate dateOfBirth) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDesignation(designation);
+        employee.setAddress(address);
+        employee.setPhoneNumber(phoneNumber);
+        employee.setAge(age);
+        employee.setJoinedOn(joinedOn);
+        employee.setDateOfBirth(dateOfBirth);
+        return employee;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import com.example.springboottemplate.service.EmployeeChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Runs the reactive profile end to end: the JDBC and the R2DBC URLs point to the same in-memory H2 database,
+ * so Flyway migrates and populates the tables that R2DBC then reads.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive-it;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-it;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=sa"
+})
+@ActiveProfiles("reactive")
+@DirtiesContext
+public class ReactiveEmployeeControllerIT {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private EmployeeChangeService employeeChangeService;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Test
+    public void testGetAllEmployees() {
+        webTestClient.get().uri("/employee/v1/")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class)
+                .value(employees -> assertEquals("Blayne", employees.get(0).getFirstName()));
+    }
+
+    @Test
+    public void testGetEmployeeById() {
+        Employee employee = webTestClient.get().uri("/employee/v1/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+
+        assertEquals("Blayne", employee.getFirstName());
+    }
+
+    @Test
+    public void testSaveAndUpdateEmployee() {
+        Employee employee = new Employee();
+        employee.setFirstName("John");
+        employee.setLastName("Doe");
+        employee.setJoinedOn(LocalDate.now());
+
+        Employee savedEmployee = webTestClient.post().uri("/employee/v1/")
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        assertNotNull(savedEmployee.getId());
+
+        savedEmployee.setAge(30);
+        Employee updatedEmployee = webTestClient.put().uri("/employee/v1/")
+                .bodyValue(savedEmployee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        assertEquals(30, updatedEmployee.getAge());
+        assertNotNull(updatedEmployee.getCreatedAt());
+
+        // The version the first update started from is stale now
+        savedEmployee.setAge(31);
+        webTestClient.put().uri("/employee/v1/")
+                .bodyValue(savedEmployee)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        savedEmployee.setId(Integer.MAX_VALUE);
+        webTestClient.put().uri("/employee/v1/")
+                .bodyValue(savedEmployee)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testWritesAreRecordedInTheChangeFeed() {
+        Employee employee = new Employee();
+        employee.setFirstName("Jane");
+        employee.setJoinedOn(LocalDate.now());
+        Employee savedEmployee = webTestClient.post().uri("/employee/v1/")
+                .bodyValue(employee)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).returnResult().getResponseBody();
+        savedEmployee.setAge(40);
+        webTestClient.put().uri("/employee/v1/").bodyValue(savedEmployee).exchange().expectStatus().isOk();
+        webTestClient.delete().uri("/employee/v1/" + savedEmployee.getId()).exchange().expectStatus().isOk();
+
+        employeeChangeService.relay();
+
+        List<ChangeOperation> operations = employeeChangeRepository.findSince(0, 10000).stream()
+                .filter(change -> change.getEmployeeId().equals(savedEmployee.getId()))
+                .map(EmployeeChange::getOperation)
+                .toList();
+        assertEquals(List.of(ChangeOperation.CREATED, ChangeOperation.UPDATED, ChangeOperation.DELETED), operations);
+    }
+}
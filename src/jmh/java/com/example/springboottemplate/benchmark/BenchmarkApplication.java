@@ -0,0 +1,52 @@
+package com.example.springboottemplate.benchmark;
+
+import com.example.springboottemplate.SpringBootTemplateApplication;
+import com.example.springboottemplate.entity.Employee;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application for the benchmarks against an in-memory H2 database in PostgreSQL mode,
+ * migrated and populated by Flyway like the tests' database.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=sa",
+                "--spring.flyway.schemas=PUBLIC",
+                "--spring.docker.compose.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--logging.level.root=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(SpringBootTemplateApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(String[]::new));
+    }
+
+    static Employee newEmployee() {
+        Employee employee = new Employee();
+        employee.setFirstName("John");
+        employee.setLastName("Doe");
+        employee.setAge(30);
+        employee.setDesignation("Software Engineer");
+        employee.setPhoneNumber("1234567890");
+        employee.setJoinedOn(LocalDate.of(2023, 6, 5));
+        employee.setAddress("123, Baker Street, London");
+        employee.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return employee;
+    }
+}
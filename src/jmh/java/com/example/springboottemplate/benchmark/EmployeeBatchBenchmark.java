@@ -0,0 +1,63 @@
+package com.example.springboottemplate.benchmark;
+
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeBatchService;
+import com.example.springboottemplate.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating size employees one save at a time, each in its own transaction, against EmployeeBatchService, which writes
+ * them in JDBC batches of batch.chunk-size. H2 in PostgreSQL mode, so without the network round trip per statement
+ * that the batches save on a real database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmployeeBatchBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeBatchService employeeBatchService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        employeeService = context.getBean(EmployeeService.class);
+        employeeBatchService = context.getBean(EmployeeBatchService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Employee> saveOneByOne() {
+        List<Employee> saved = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            saved.add(employeeService.saveEmployee(BenchmarkApplication.newEmployee()));
+        }
+        return saved;
+    }
+
+    @Benchmark
+    public BatchResult saveInBatches() {
+        List<Employee> employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(BenchmarkApplication.newEmployee());
+        }
+        return employeeBatchService.createEmployees(employees.iterator());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springboottemplate.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the HTTP endpoints under high concurrency, with the default Tomcat platform-thread pool
+ * and with the virtual-threads profile. The virtual-threads mode only differs on Java 21+.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(256)
+public class EmployeeConcurrencyBenchmark {
+
+    @Param({"platform-threads", "virtual-threads"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private HttpRequest getEmployeePage;
+
+    private HttpRequest getAllEmployees;
+
+    @Setup
+    public void setUp() {
+        context = "virtual-threads".equals(mode)
+                ? BenchmarkApplication.start(WebApplicationType.SERVLET, "--spring.profiles.active=virtual-threads")
+                : BenchmarkApplication.start(WebApplicationType.SERVLET);
+        httpClient = HttpClient.newHttpClient();
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/employee/v1/";
+        getEmployeePage = HttpRequest.newBuilder(URI.create(baseUrl + "page?size=10")).build();
+        getAllEmployees = HttpRequest.newBuilder(URI.create(baseUrl)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> getEmployeePage() throws Exception {
+        return httpClient.send(getEmployeePage, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> getAllEmployees() throws Exception {
+        return httpClient.send(getAllEmployees, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
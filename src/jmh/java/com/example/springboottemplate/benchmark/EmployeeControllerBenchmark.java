@@ -0,0 +1,86 @@
+package com.example.springboottemplate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * EmployeeController through MockMvc (DispatcherServlet only) and through real HTTP requests to the embedded Tomcat
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeControllerBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private String newEmployeeJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        httpClient = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/employee/v1/";
+        newEmployeeJson = context.getBean(ObjectMapper.class).writeValueAsString(BenchmarkApplication.newEmployee());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult mockMvcGetEmployeeById() throws Exception {
+        return mockMvc.perform(get("/employee/v1/1")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult mockMvcGetAllEmployees() throws Exception {
+        return mockMvc.perform(get("/employee/v1/")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult mockMvcSaveEmployee() throws Exception {
+        return mockMvc.perform(post("/employee/v1/").contentType("application/json").content(newEmployeeJson)).andReturn();
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> httpGetEmployeeById() throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + "1")).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> httpGetAllEmployees() throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Benchmark
+    public HttpResponse<byte[]> httpSaveEmployee() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(newEmployeeJson))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
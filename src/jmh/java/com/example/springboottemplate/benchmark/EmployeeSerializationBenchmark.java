@@ -0,0 +1,103 @@
+package com.example.springboottemplate.benchmark;
+
+import com.example.springboottemplate.config.BinaryFormatConfig;
+import com.example.springboottemplate.entity.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson serialization of Employee with the SNAKE_CASE naming strategy used by the API, in each format the API
+ * negotiates: JSON, CBOR and Smile. The size of the payloads, raw and gzipped as with server.compression, is printed
+ * once per format at the start of the benchmark, since it does not change from one invocation to the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EmployeeSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private Employee employee;
+
+    private List<Employee> employeeList;
+
+    private byte[] employeeBytes;
+
+    private byte[] employeeListBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build();
+        objectMapper = switch (format) {
+            case "cbor" -> BinaryFormatConfig.cborMapper(jsonMapper);
+            case "smile" -> BinaryFormatConfig.smileMapper(jsonMapper);
+            default -> jsonMapper;
+        };
+
+        employee = newEmployee(1);
+        employeeList = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            employeeList.add(newEmployee(i));
+        }
+        employeeBytes = objectMapper.writeValueAsBytes(employee);
+        employeeListBytes = objectMapper.writeValueAsBytes(employeeList);
+
+        System.out.printf("%n%s: employee %d bytes (%d gzipped), list of %d employees %d bytes (%d gzipped)%n", format,
+                employeeBytes.length, gzip(employeeBytes).length, employeeList.size(), employeeListBytes.length,
+                gzip(employeeListBytes).length);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws Exception {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeList() throws Exception {
+        return objectMapper.writeValueAsBytes(employeeList);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws Exception {
+        return objectMapper.readValue(employeeBytes, Employee.class);
+    }
+
+    @Benchmark
+    public Employee[] deserializeEmployeeList() throws Exception {
+        return objectMapper.readValue(employeeListBytes, Employee[].class);
+    }
+
+    private static Employee newEmployee(int id) {
+        Employee employee = BenchmarkApplication.newEmployee();
+        employee.setId(id);
+        employee.setFirstName("John" + id);
+        employee.setPhoneNumber(String.valueOf(1234567890L + id));
+        employee.setCreatedAt(LocalDateTime.of(2024, 6, 5, 12, 0, 0).plusMinutes(id));
+        employee.setUpdatedAt(LocalDateTime.of(2024, 6, 5, 12, 0, 0).plusMinutes(id));
+        employee.setVersion(0);
+        return employee;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
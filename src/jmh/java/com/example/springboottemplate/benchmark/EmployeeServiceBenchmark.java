@@ -0,0 +1,64 @@
+package com.example.springboottemplate.benchmark;
+
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeService CRUD operations against H2 in PostgreSQL mode
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private Employee existingEmployee;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        employeeService = context.getBean(EmployeeService.class);
+        existingEmployee = employeeService.getEmployeeById(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee getEmployeeById() {
+        return employeeService.getEmployeeById(1);
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeePage() {
+        return employeeService.getEmployeePage(null, 20);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkApplication.newEmployee());
+    }
+
+    @Benchmark
+    public Employee updateEmployee() {
+        // Carry the new version over, or the next update would be rejected as a conflict
+        existingEmployee = employeeService.updateEmployee(existingEmployee);
+        return existingEmployee;
+    }
+
+    @Benchmark
+    public void saveAndDeleteEmployee() {
+        employeeService.deleteEmployeeById(employeeService.saveEmployee(BenchmarkApplication.newEmployee()).getId());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.springboottemplate.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Time from process launch to the first successful GET /employee/v1/ of the packaged application, and its resident
+ * memory at that point, for each startup mode. Not a JMH benchmark: every measurement is a fresh process, so it is
+ * launched as a single-file program by the fast-startup and native Maven profiles, with the jar directory, the jar
+ * name, the number of runs per mode, the result file and the application arguments. The startup.modes system property
+ * selects the modes, the native mode runs the executable given by the startup.native-executable system property.
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private record Mode(String name, List<String> launcher, List<String> appArgs) {
+    }
+
+    private record Measurement(long millis, long rssKilobytes) {
+    }
+
+    private record Result(String mode, List<Long> millis, List<Long> rssKilobytes) {
+
+        long min() {
+            return millis.stream().mapToLong(Long::longValue).min().orElseThrow();
+        }
+
+        long median() {
+            List<Long> sorted = millis.stream().sorted().toList();
+            return sorted.get(sorted.size() / 2);
+        }
+
+        long max() {
+            return millis.stream().mapToLong(Long::longValue).max().orElseThrow();
+        }
+
+        long medianRssKilobytes() {
+            List<Long> sorted = rssKilobytes.stream().sorted().toList();
+            return sorted.get(sorted.size() / 2);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path directory = Path.of(args[0]);
+        String jar = args[1];
+        int runs = Integer.parseInt(args[2]);
+        Path resultFile = Path.of(args[3]);
+        List<String> appArgs = Arrays.asList(args).subList(4, args.length);
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String cds = "-XX:SharedArchiveFile=application.jsa";
+        String aot = "-Dspring.aot.enabled=true";
+        String profile = "--spring.profiles.active=fast-startup";
+        Map<String, Mode> modes = new LinkedHashMap<>();
+        for (Mode mode : List.of(
+                new Mode("default", List.of(java, "-jar", jar), List.of()),
+                new Mode("fast-startup-profile", List.of(java, "-jar", jar), List.of(profile)),
+                new Mode("aot", List.of(java, aot, "-jar", jar), List.of()),
+                new Mode("cds", List.of(java, cds, "-jar", jar), List.of()),
+                new Mode("aot+cds+fast-startup-profile", List.of(java, aot, cds, "-jar", jar), List.of(profile)),
+                new Mode("native", List.of(System.getProperty("startup.native-executable", "")), List.of()))) {
+            modes.put(mode.name(), mode);
+        }
+        String selectedModes = System.getProperty("startup.modes", "default,fast-startup-profile,aot,cds,aot+cds+fast-startup-profile");
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        List<Result> results = new ArrayList<>();
+        for (String name : selectedModes.split(",")) {
+            Mode mode = modes.get(name.trim());
+            if (mode == null) {
+                throw new IllegalArgumentException("Unknown startup mode: " + name + ", expected one of " + modes.keySet());
+            }
+            List<Long> millis = new ArrayList<>();
+            List<Long> rssKilobytes = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                Measurement measurement = measure(httpClient, directory, mode, appArgs);
+                millis.add(measurement.millis());
+                rssKilobytes.add(measurement.rssKilobytes());
+            }
+            Result result = new Result(mode.name(), millis, rssKilobytes);
+            System.out.printf(Locale.ROOT, "%-30s min %6d ms   median %6d ms   max %6d ms   median RSS %7d KB%n",
+                    result.mode(), result.min(), result.median(), result.max(), result.medianRssKilobytes());
+            results.add(result);
+        }
+        Files.writeString(resultFile, toJson(results));
+    }
+
+    private static Measurement measure(HttpClient httpClient, Path directory, Mode mode, List<String> appArgs)
+            throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(mode.launcher());
+        command.addAll(List.of("--server.port=" + port, "--logging.level.root=WARN"));
+        command.addAll(appArgs);
+        command.addAll(mode.appArgs());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/v1/"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + ": application exited with " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return new Measurement(millis, residentSetKilobytes(process));
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode.name() + ": no successful request within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * VmRSS of the process, Linux only: -1 elsewhere
+     */
+    private static long residentSetKilobytes(Process process) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1L);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String toJson(List<Result> results) {
+        return results.stream()
+                .map(result -> String.format(Locale.ROOT,
+                        "  {\"mode\": \"%s\", \"millis\": %s, \"min\": %d, \"median\": %d, \"max\": %d, \"rssKilobytes\": %s}",
+                        result.mode(), result.millis(), result.min(), result.median(), result.max(), result.rssKilobytes()))
+                .collect(Collectors.joining(",\n", "[\n", "\n]\n"));
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.springboottemplate.loadtest;
+
+import com.example.springboottemplate.SpringBootTemplateApplication;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the /employee/v1 API. Boots the application, against an in-memory H2 database unless the
+ * arguments point it elsewhere, seeds load-test.employees employees, then sends a mix of reads and writes at
+ * load-test.rps requests per second for load-test.duration, after load-test.warmup of the same load.
+ * <p>
+ * Requests are sent on schedule whatever the responses (open loop), and each latency is measured from the time the
+ * request was due, not from the time it was actually sent: a stalled server shows in the percentiles instead of
+ * slowing the test down (coordinated omission). Requests due while load-test.max-in-flight are already waiting are
+ * counted as errors. Latencies are recorded in HdrHistograms, the report is written to the result file and compared
+ * with the baseline file, see LoadTestReport.
+ * <p>
+ * Not a JMH benchmark: launched by the load-test Maven profile with the result file, the baseline file and the
+ * application arguments.
+ */
+public final class LoadTest {
+
+    /**
+     * Latencies above are recorded as this, a minute
+     */
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String[] LAST_NAMES = {"Calleja", "Gommes", "Mouton", "Sondland", "Besson", "Doe", "Smith",
+            "Garcia", "Nguyen", "Okafor", "Larsen", "Kowalski", "Haddad", "Tanaka", "Moreau", "Rossi"};
+
+    private static final String[] DESIGNATIONS = {"Software Engineer", "Manager", "Analyst", "Designer", "Director",
+            "Support Engineer", "Accountant", "Recruiter"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    enum Operation {
+
+        GET_BY_ID("get-by-id"),
+        PAGE("page"),
+        SEARCH("search"),
+        CREATE("create"),
+        UPDATE("update");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + key);
+        }
+    }
+
+    private final HttpClient httpClient;
+
+    private final String baseUrl;
+
+    private final int maxId;
+
+    private final Operation[] mix;
+
+    private final Map<Operation, Recorder> recorders = new LinkedHashMap<>();
+
+    private final Map<Operation, AtomicLong> errors = new LinkedHashMap<>();
+
+    private LoadTest(HttpClient httpClient, String baseUrl, int maxId, Operation[] mix) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.maxId = maxId;
+        this.mix = mix;
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path resultFile = Path.of(args[0]);
+        Path baselineFile = Path.of(args[1]);
+        int employees = Integer.getInteger("load-test.employees", 10_000);
+        int rps = Integer.getInteger("load-test.rps", 200);
+        Duration warmup = Duration.parse("PT" + System.getProperty("load-test.warmup", "10s"));
+        Duration duration = Duration.parse("PT" + System.getProperty("load-test.duration", "30s"));
+        int maxInFlight = Integer.getInteger("load-test.max-in-flight", 1000);
+        String mixSetting = System.getProperty("load-test.mix", "get-by-id:60,page:15,search:10,create:5,update:10");
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:load-test-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=sa",
+                "--spring.flyway.schemas=PUBLIC",
+                "--spring.docker.compose.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                // A single client sending the whole load: the per-client rate limits would only measure the 429s
+                "--employee.admission.enabled=false"));
+        appArgs.addAll(List.of(args).subList(2, args.length));
+
+        // DevTools is on the test classpath, a restart would run the application a second time
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringBootTemplateApplication.class)
+                .run(appArgs.toArray(String[]::new));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors()));
+        List<String> regressions;
+        try {
+            long seedStart = System.nanoTime();
+            seed(context, employees);
+            Integer maxId = context.getBean(JdbcTemplate.class).queryForObject("SELECT max(id) FROM employee", Integer.class);
+            System.out.printf("Seeded %d employees in %d ms%n", employees, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            HttpClient httpClient = HttpClient.newBuilder().executor(executor).build();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/employee/v1/";
+            LoadTest loadTest = new LoadTest(httpClient, baseUrl, maxId == null ? 1 : maxId, parseMix(mixSetting));
+
+            System.out.printf("Warming up for %s at %d requests per second%n", warmup, rps);
+            loadTest.run(rps, warmup, maxInFlight);
+            loadTest.reset();
+            System.out.printf("Measuring for %s at %d requests per second%n", duration, rps);
+            loadTest.run(rps, duration, maxInFlight);
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("employees", employees);
+            settings.put("rps", rps);
+            settings.put("duration", duration.toString());
+            settings.put("mix", mixSetting);
+            LoadTestReport report = loadTest.report(settings, duration);
+            report.print(System.out);
+            report.write(resultFile);
+
+            if (Boolean.getBoolean("load-test.update-baseline")) {
+                report.write(baselineFile);
+                System.out.printf("Baseline updated: %s%n", baselineFile);
+                return;
+            }
+            regressions = report.regressionsFrom(baselineFile,
+                    Double.parseDouble(System.getProperty("load-test.tolerance", "0.25")),
+                    Double.parseDouble(System.getProperty("load-test.latency-floor-ms", "5")),
+                    Double.parseDouble(System.getProperty("load-test.max-error-rate", "0.001")));
+        } finally {
+            executor.shutdownNow();
+            context.close();
+        }
+        if (!regressions.isEmpty()) {
+            regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Inserts the employees in JDBC batches of 10000, in a transaction each
+     */
+    private static void seed(ConfigurableApplicationContext context, int count) {
+        EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        Random random = new Random(42);
+        int chunkSize = 10_000;
+        for (int seeded = 0; seeded < count; seeded += chunkSize) {
+            List<Employee> chunk = new ArrayList<>(chunkSize);
+            for (int i = seeded; i < Math.min(count, seeded + chunkSize); i++) {
+                Employee employee = newEmployee(random, "Seeded" + i);
+                employee.setCreatedAt(LocalDateTime.now());
+                employee.setUpdatedAt(LocalDateTime.now());
+                chunk.add(employee);
+            }
+            transactionTemplate.executeWithoutResult(status -> employeeRepository.insertAllInBatch(chunk));
+        }
+    }
+
+    private static Operation[] parseMix(String setting) {
+        List<Operation> mix = new ArrayList<>();
+        for (String entry : setting.split(",")) {
+            String[] weight = entry.trim().split(":");
+            Operation operation = Operation.of(weight[0]);
+            for (int i = 0; i < Integer.parseInt(weight[1]); i++) {
+                mix.add(operation);
+            }
+        }
+        return mix.toArray(Operation[]::new);
+    }
+
+    /**
+     * Sends the requests on schedule, from this thread, and waits for the last responses
+     */
+    private void run(int rps, Duration duration, int maxInFlight) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long count = duration.toNanos() / interval;
+        for (long i = 0; i < count; i++) {
+            long dueAt = start + i * interval;
+            long wait = dueAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+            if (!inFlight.tryAcquire()) {
+                errors.get(operation).incrementAndGet();
+                continue;
+            }
+            httpClient.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = Math.min(System.nanoTime() - dueAt, HIGHEST_TRACKABLE_NANOS);
+                        inFlight.release();
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.get(operation).incrementAndGet();
+                        } else {
+                            recorders.get(operation).recordValue(latency);
+                        }
+                    });
+        }
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    private HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = 1 + random.nextInt(maxId);
+        return switch (operation) {
+            case GET_BY_ID -> HttpRequest.newBuilder(URI.create(baseUrl + id)).build();
+            case PAGE -> HttpRequest.newBuilder(URI.create(baseUrl + "page?size=20&cursor="
+                    + Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8))))
+                    .build();
+            case SEARCH -> HttpRequest.newBuilder(URI.create(baseUrl + "search?size=20&lastNamePrefix="
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)].substring(0, 2) + "&minAge=" + (20 + random.nextInt(30))))
+                    .build();
+            case CREATE -> json(HttpRequest.newBuilder(URI.create(baseUrl)), "POST", newEmployee(random, "Created"));
+            case UPDATE -> {
+                // Without a version: the last write wins, updates of the same employee do not conflict
+                Employee employee = newEmployee(random, "Updated");
+                employee.setId(id);
+                yield json(HttpRequest.newBuilder(URI.create(baseUrl)), "PUT", employee);
+            }
+        };
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, Employee employee) {
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(employee)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Employee newEmployee(Random random, String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        employee.setAge(20 + random.nextInt(45));
+        employee.setDesignation(DESIGNATIONS[random.nextInt(DESIGNATIONS.length)]);
+        employee.setPhoneNumber(String.format("%03d-%03d-%04d", random.nextInt(1000), random.nextInt(1000), random.nextInt(10000)));
+        employee.setJoinedOn(LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3650)));
+        employee.setAddress("Suite " + random.nextInt(100));
+        employee.setDateOfBirth(LocalDate.of(1960, 1, 1).plusDays(random.nextInt(15000)));
+        return employee;
+    }
+
+    private void reset() {
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(error -> error.set(0));
+    }
+
+    private LoadTestReport report(Map<String, Object> settings, Duration duration) {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            histograms.put(operation.key, recorder.getIntervalHistogram());
+            errorCounts.put(operation.key, errors.get(operation).get());
+        });
+        return new LoadTestReport(settings, histograms, errorCounts, duration);
+    }
+}
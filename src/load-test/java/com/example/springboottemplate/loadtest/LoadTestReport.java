@@ -0,0 +1,140 @@
+package com.example.springboottemplate.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency percentiles, in milliseconds, throughput and error rate of each operation of a load test, and of all of
+ * them together. Written as JSON, the same format as the baseline it is compared with.
+ * <p>
+ * A run regresses from the baseline when a percentile is more than tolerance slower and at least latency-floor
+ * milliseconds slower, so that noise on sub-millisecond latencies does not fail the build, or when the overall
+ * throughput is more than tolerance lower. Error rates are checked against max-error-rate whatever the baseline.
+ * Baselines depend on the machine: regenerate the baseline with load-test.update-baseline on the machine that
+ * runs the gate.
+ */
+final class LoadTestReport {
+
+    static final String ALL = "all";
+
+    private static final String[] PERCENTILES = {"p50", "p99", "p999"};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, Object> settings;
+
+    private final Map<String, Map<String, Number>> results = new LinkedHashMap<>();
+
+    LoadTestReport(Map<String, Object> settings, Map<String, Histogram> histograms, Map<String, Long> errors,
+                   Duration duration) {
+        this.settings = settings;
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            long operationErrors = errors.get(entry.getKey());
+            if (entry.getValue().getTotalCount() + operationErrors > 0) {
+                results.put(entry.getKey(), result(entry.getValue(), operationErrors, duration));
+            }
+            all.add(entry.getValue());
+            allErrors += operationErrors;
+        }
+        results.put(ALL, result(all, allErrors, duration));
+    }
+
+    private static Map<String, Number> result(Histogram histogram, long errors, Duration duration) {
+        long requests = histogram.getTotalCount() + errors;
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("requests", requests);
+        result.put("errors", errors);
+        result.put("errorRate", requests == 0 ? 0.0 : (double) errors / requests);
+        result.put("throughput", round(histogram.getTotalCount() / (duration.toNanos() / 1e9)));
+        result.put("p50", millis(histogram.getValueAtPercentile(50)));
+        result.put("p99", millis(histogram.getValueAtPercentile(99)));
+        result.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        result.put("max", millis(histogram.getMaxValue()));
+        return result;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-10s %10s %8s %10s %10s %10s %10s %10s%n", "operation", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "p999 ms", "max ms");
+        results.forEach((operation, result) -> out.printf(Locale.ROOT, "%-10s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                operation, result.get("requests").longValue(), result.get("errors").longValue(),
+                result.get("throughput").doubleValue(), result.get("p50").doubleValue(), result.get("p99").doubleValue(),
+                result.get("p999").doubleValue(), result.get("max").doubleValue()));
+    }
+
+    void write(Path file) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("results", results);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), report);
+    }
+
+    /**
+     * @return a description of each regression, empty when the run is as good as the baseline or there is none
+     */
+    List<String> regressionsFrom(Path baselineFile, double tolerance, double latencyFloorMillis, double maxErrorRate)
+            throws IOException {
+        List<String> regressions = new ArrayList<>();
+        results.forEach((operation, result) -> {
+            if (result.get("errorRate").doubleValue() > maxErrorRate) {
+                regressions.add(String.format(Locale.ROOT, "%s error rate %.4f above %.4f", operation,
+                        result.get("errorRate").doubleValue(), maxErrorRate));
+            }
+        });
+        if (!Files.exists(baselineFile)) {
+            System.out.printf("No baseline at %s, run with -Dload-test.update-baseline=true to record one%n", baselineFile);
+            return regressions;
+        }
+        JsonNode baseline = MAPPER.readTree(baselineFile.toFile());
+        if (!baseline.get("settings").equals(MAPPER.valueToTree(settings))) {
+            System.out.printf("Baseline %s was recorded with other settings %s, not compared%n", baselineFile,
+                    baseline.get("settings"));
+            return regressions;
+        }
+        results.forEach((operation, result) -> {
+            JsonNode expected = baseline.get("results").get(operation);
+            if (expected == null) {
+                return;
+            }
+            for (String percentile : PERCENTILES) {
+                double actual = result.get(percentile).doubleValue();
+                double limit = expected.get(percentile).asDouble();
+                if (actual > limit * (1 + tolerance) && actual - limit >= latencyFloorMillis) {
+                    regressions.add(String.format(Locale.ROOT, "%s %s %.3f ms, baseline %.3f ms", operation, percentile,
+                            actual, limit));
+                }
+            }
+        });
+        double throughput = results.get(ALL).get("throughput").doubleValue();
+        double expectedThroughput = baseline.get("results").get(ALL).get("throughput").asDouble();
+        if (throughput < expectedThroughput * (1 - tolerance)) {
+            regressions.add(String.format(Locale.ROOT, "throughput %.1f requests per second, baseline %.1f",
+                    throughput, expectedThroughput));
+        }
+        return regressions;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
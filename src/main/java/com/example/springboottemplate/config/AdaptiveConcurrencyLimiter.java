@@ -0,0 +1,119 @@
+package com.example.springboottemplate.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on the number of requests in progress, adapted to their latency (AIMD). While requests complete within
+ * tolerance times the lowest latency recently seen on their endpoint, the limit grows by one every limit
+ * completions. When one takes longer, it waited for a saturated resource (database connections or CPU) and the
+ * limit is multiplied by backoff-ratio, at most once per round trip: only requests started after the last decrease
+ * can decrease it again. The lowest latency of each endpoint is measured over windows of baseline-window requests,
+ * so that it follows a growing table.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double tolerance;
+
+    private final int baselineWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    private volatile double limit;
+
+    private long lastDecreaseAt = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance,
+                                      int baselineWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.baselineWindow = baselineWindow;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return true when the request may proceed, it must then be released
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a request whose latency says nothing of the load, e.g. a stream or a bulk import
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases a request and adapts the limit to its latency
+     * @param endpoint - latencies are only compared between requests of the same endpoint
+     * @param startedAt - System.nanoTime() when the request was admitted
+     * @param completedAt - System.nanoTime() when it completed
+     */
+    public void release(String endpoint, long startedAt, long completedAt) {
+        int current = inFlight.getAndDecrement();
+        long latency = completedAt - startedAt;
+        long baseline = baselines.computeIfAbsent(endpoint, e -> new Baseline()).update(latency, baselineWindow);
+        synchronized (this) {
+            if (latency > baseline * tolerance) {
+                if (startedAt > lastDecreaseAt) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseAt = completedAt;
+                }
+            } else if (current >= limit / 2) {
+                // Only grows when the limit is actually used, not while the traffic is low
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Lowest latency of an endpoint: that of the previous window, or of the current one when lower
+     */
+    private static final class Baseline {
+
+        private long previousMin = Long.MAX_VALUE;
+
+        private long currentMin = Long.MAX_VALUE;
+
+        private int samples;
+
+        private synchronized long update(long latency, int window) {
+            currentMin = Math.min(currentMin, latency);
+            if (++samples >= window) {
+                previousMin = currentMin;
+                currentMin = Long.MAX_VALUE;
+                samples = 0;
+            }
+            return Math.min(previousMin, currentMin);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.springboottemplate.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limiting and load shedding of the employee API, see AdmissionInterceptor. Limits are set in the
+ * employee.admission properties of application.yaml, and the state of the limiters is exposed by the
+ * employee.admission.* meters.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "employee.admission.enabled", havingValue = "true")
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    public AdmissionConfig(MeterRegistry meterRegistry, Environment environment,
+                           @Value("${employee.admission.client-id-header:X-Client-Id}") String clientIdHeader,
+                           @Value("${employee.admission.trusted-proxies:}") List<String> trustedProxies,
+                           @Value("${employee.admission.client.rate:100}") double clientRate,
+                           @Value("${employee.admission.client.burst:200}") int clientBurst,
+                           @Value("${employee.admission.client.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${employee.admission.concurrency.initial-limit:20}") int initialLimit,
+                           @Value("${employee.admission.concurrency.min-limit:4}") int minLimit,
+                           @Value("${employee.admission.concurrency.max-limit:200}") int maxLimit,
+                           @Value("${employee.admission.concurrency.backoff-ratio:0.9}") double backoffRatio,
+                           @Value("${employee.admission.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+                           @Value("${employee.admission.concurrency.baseline-window:1000}") int baselineWindow,
+                           @Value("${employee.admission.concurrency.retry-after:1s}") Duration overloadRetryAfter,
+                           @Value("${employee.admission.concurrency.bulk-endpoints:}") List<String> bulkEndpoints) {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(idleTimeout, System::nanoTime);
+        AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit,
+                backoffRatio, latencyTolerance, baselineWindow);
+        // Keyed by method and path pattern, e.g. "GET /employee/v1/"
+        Map<String, TokenBucketRateLimiter.RateLimit> endpointLimits = Binder.get(environment)
+                .bind("employee.admission.endpoints", Bindable.mapOf(String.class, TokenBucketRateLimiter.RateLimit.class))
+                .orElse(Map.of());
+        this.admissionInterceptor = new AdmissionInterceptor(rateLimiter, concurrencyLimiter, clientIdHeader,
+                new HashSet<>(trustedProxies), new TokenBucketRateLimiter.RateLimit(clientRate, clientBurst),
+                endpointLimits, new HashSet<>(bulkEndpoints), overloadRetryAfter, meterRegistry);
+
+        Gauge.builder("employee.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Requests allowed in progress at once, adapted to their latency")
+                .register(meterRegistry);
+        Gauge.builder("employee.admission.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests in progress")
+                .register(meterRegistry);
+        Gauge.builder("employee.admission.rate.buckets", rateLimiter, TokenBucketRateLimiter::size)
+                .description("Token buckets of the clients seen recently")
+                .register(meterRegistry);
+    }
+
+    /**
+     * First interceptor, so that a rejected request does not even open the EntityManager of open-in-view
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor)
+                .addPathPatterns("/employee/v1/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.springboottemplate.config;
+
+import com.example.springboottemplate.exception.RateLimitExceededException;
+import com.example.springboottemplate.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission of the employee API requests, decided once the endpoint is known and before the handler, so before
+ * the request takes a database connection. A request is rejected with 429 Too Many Requests when its client
+ * went past its rate limit, overall or on that endpoint, and with 503 Service Unavailable when the concurrency limit
+ * is reached. Both carry a Retry-After header.
+ * <p>
+ * The concurrency limit covers the handler, not the streaming of asynchronous responses, and it does not learn from
+ * the latency of bulk endpoints, which depends on the size of the request rather than on the load.
+ * <p>
+ * Clients are told apart by their address. The client id header and X-Forwarded-For are only trusted on requests
+ * coming from one of the trusted proxies, which must overwrite them: anyone else could send a new id with every
+ * request and get a new bucket each time. Behind a proxy that is not trusted, all the clients share its address and
+ * so its buckets.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_AT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admittedAt";
+
+    private static final String ENDPOINT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".endpoint";
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final String clientIdHeader;
+
+    private final Set<String> trustedProxies;
+
+    private final TokenBucketRateLimiter.RateLimit clientLimit;
+
+    private final Map<String, TokenBucketRateLimiter.RateLimit> endpointLimits;
+
+    private final Set<String> bulkEndpoints;
+
+    private final long overloadRetryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+
+    public AdmissionInterceptor(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                String clientIdHeader, Set<String> trustedProxies, TokenBucketRateLimiter.RateLimit clientLimit,
+                                Map<String, TokenBucketRateLimiter.RateLimit> endpointLimits, Set<String> bulkEndpoints,
+                                Duration overloadRetryAfter, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientIdHeader = clientIdHeader;
+        this.trustedProxies = trustedProxies;
+        this.clientLimit = clientLimit;
+        this.endpointLimits = endpointLimits;
+        this.bulkEndpoints = bulkEndpoints;
+        this.overloadRetryAfterSeconds = Math.max(1, overloadRetryAfter.toSeconds());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Admitted when first dispatched, the dispatch of an asynchronous result is not a new request
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String client = clientId(request);
+
+        // A token is given back when a later check rejects the request, so that rejected retries do not use up the quota
+        TokenBucketRateLimiter.RateLimit endpointLimit = endpointLimits.get(endpoint);
+        String endpointKey = endpointLimit == null ? null : client + " " + endpoint;
+        if (endpointKey != null) {
+            checkRate(response, endpointKey, endpointLimit, endpoint, "endpoint-rate");
+        }
+        try {
+            checkRate(response, client, clientLimit, endpoint, "client-rate");
+        } catch (RateLimitExceededException e) {
+            if (endpointKey != null) {
+                rateLimiter.release(endpointKey);
+            }
+            throw e;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            if (endpointKey != null) {
+                rateLimiter.release(endpointKey);
+            }
+            rateLimiter.release(client);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(overloadRetryAfterSeconds));
+            rejected(endpoint, "concurrency");
+            throw new ServiceOverloadedException(concurrencyLimiter.getLimit());
+        }
+        request.setAttribute(ADMITTED_AT_ATTRIBUTE, System.nanoTime());
+        request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ADMITTED_AT_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_AT_ATTRIBUTE);
+            concurrencyLimiter.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object admittedAt = request.getAttribute(ADMITTED_AT_ATTRIBUTE);
+        if (admittedAt == null) {
+            return;
+        }
+        request.removeAttribute(ADMITTED_AT_ATTRIBUTE);
+        String endpoint = (String) request.getAttribute(ENDPOINT_ATTRIBUTE);
+        if (bulkEndpoints.contains(endpoint)) {
+            concurrencyLimiter.release();
+        } else {
+            concurrencyLimiter.release(endpoint, (Long) admittedAt, System.nanoTime());
+        }
+    }
+
+    private void checkRate(HttpServletResponse response, String key, TokenBucketRateLimiter.RateLimit limit,
+                           String endpoint, String reason) {
+        long waitNanos = rateLimiter.tryAcquire(key, limit);
+        if (waitNanos > 0) {
+            // Whole seconds, rounded up so that the retry finds a token
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            rejected(endpoint, reason);
+            throw new RateLimitExceededException(limit.rate() + " requests per second");
+        }
+    }
+
+    /**
+     * The address the request came from, unless it came from a trusted proxy. Then the client id header, set by
+     * the gateway that authenticated the client, or the last address of X-Forwarded-For that is not a trusted proxy.
+     */
+    private String clientId(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String clientId = request.getHeader(clientIdHeader);
+        if (clientId != null && !clientId.isBlank()) {
+            return clientId;
+        }
+        // Each proxy appends the address it got the request from, only the ones after the last untrusted one are known
+        List<String> forwardedFor = new ArrayList<>();
+        Collections.list(request.getHeaders(FORWARDED_FOR_HEADER))
+                .forEach(header -> Arrays.stream(header.split(",")).map(String::strip)
+                        .filter(forwarded -> !forwarded.isEmpty()).forEach(forwardedFor::add));
+        for (int i = forwardedFor.size() - 1; i >= 0 && trustedProxies.contains(address); i--) {
+            address = forwardedFor.get(i);
+        }
+        return address;
+    }
+
+    private void rejected(String endpoint, String reason) {
+        Counter.builder("employee.admission.rejected")
+                .description("Requests rejected before reaching the handler")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
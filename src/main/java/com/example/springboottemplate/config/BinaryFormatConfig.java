@@ -0,0 +1,39 @@
+package com.example.springboottemplate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary alternatives to JSON for service-to-service calls, picked with the Accept and Content-Type headers:
+ * CBOR (application/cbor) and Smile (application/x-jackson-smile). Both are written by Jackson with a copy of the
+ * application ObjectMapper, so the employees have the same properties and date formats as in JSON, only the
+ * encoding differs. Spring Boot puts these converters in place of the default ones, built without its customizations.
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapper));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapper));
+    }
+
+    public static ObjectMapper cborMapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new CBORFactory());
+    }
+
+    public static ObjectMapper smileMapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new SmileFactory());
+    }
+}
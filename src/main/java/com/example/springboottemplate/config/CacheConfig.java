@@ -0,0 +1,19 @@
+package com.example.springboottemplate.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the cache abstraction. The caches themselves (Caffeine, bounded, with a TTL) are configured
+ * through the spring.cache properties in application.yaml.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Employees by id, filled by EmployeeService.getEmployeeById and invalidated by every write
+     */
+    public static final String EMPLOYEES_CACHE = "employees";
+
+}
@@ -0,0 +1,170 @@
+package com.example.springboottemplate.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in employee.datasource.replica-urls. The DataSource bean becomes
+ * a LazyConnectionDataSourceProxy that takes the connections of read-only transactions (@Transactional(readOnly = true),
+ * the read methods of Spring Data repositories) from ReplicaDataSource, and the others from the primary pool.
+ * Each replica gets its own Hikari pool, configured like the primary one. What read-only transactions read is not put
+ * in the second-level cache, see ReplicaAwareJpaDialect.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "employee.datasource.replica-urls")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+            @Value("${employee.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${employee.datasource.health-check-interval:10s}") Duration healthCheckInterval,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicaRoutingPostProcessor(replicaUrls, healthCheckInterval, meterRegistry);
+    }
+
+    /**
+     * Sets the JPA dialect of the entity manager factory, and so of its transaction manager, before the one of the
+     * vendor adapter is taken
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactoryBean) {
+                    entityManagerFactoryBean.setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Reports each replica, but stays up when they are all down: the primary then serves the reads
+     */
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaRoutingPostProcessor replicaRoutingPostProcessor) {
+        return () -> {
+            ReplicaDataSource replicaDataSource = replicaRoutingPostProcessor.getReplicaDataSource();
+            if (replicaDataSource == null) {
+                return Health.unknown().build();
+            }
+            Map<String, Boolean> replicaHealth = replicaDataSource.getReplicaHealth();
+            Health.Builder health = Health.up();
+            replicaHealth.forEach((name, healthy) -> health.withDetail(name, healthy ? "UP" : "DOWN"));
+            return health.build();
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${employee.datasource.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+        return new ReadYourWritesFilter(readYourWritesWindow);
+    }
+
+    /**
+     * Applied by Spring Boot to the applicationTaskExecutor, on platform or virtual threads, so that the streaming
+     * responses and @Async work of a request that reads its own writes read from the primary too
+     */
+    @Bean
+    public TaskDecorator readFromPrimaryTaskDecorator() {
+        return ReplicaDataSource::propagateReadFromPrimary;
+    }
+
+    /**
+     * Wraps the Hikari DataSource, before MetricsConfig does, so that the statements run on the replicas are measured too
+     */
+    static class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private final List<String> replicaUrls;
+
+        private final Duration healthCheckInterval;
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        private final List<HikariDataSource> replicaPools = new ArrayList<>();
+
+        private ReplicaDataSource replicaDataSource;
+
+        private ScheduledExecutorService healthChecker;
+
+        ReplicaRoutingPostProcessor(List<String> replicaUrls, Duration healthCheckInterval, ObjectProvider<MeterRegistry> meterRegistry) {
+            this.replicaUrls = replicaUrls;
+            this.healthCheckInterval = healthCheckInterval;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource primary) || replicaDataSource != null) {
+                return bean;
+            }
+            List<String> names = new ArrayList<>();
+            for (String replicaUrl : replicaUrls) {
+                HikariConfig config = new HikariConfig();
+                primary.copyStateTo(config);
+                config.setJdbcUrl(replicaUrl);
+                config.setPoolName("replica-" + (replicaPools.size() + 1));
+                config.setReadOnly(true);
+                meterRegistry.ifAvailable(registry -> config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                replicaPools.add(new HikariDataSource(config));
+                names.add(config.getPoolName());
+            }
+            replicaDataSource = new ReplicaDataSource(primary, new ArrayList<>(replicaPools), names);
+
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = healthCheckInterval.toMillis();
+            healthChecker.scheduleWithFixedDelay(replicaDataSource::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+
+            LazyConnectionDataSourceProxy routingDataSource = new LazyConnectionDataSourceProxy(primary);
+            routingDataSource.setReadOnlyDataSource(replicaDataSource);
+            return routingDataSource;
+        }
+
+        ReplicaDataSource getReplicaDataSource() {
+            return replicaDataSource;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void destroy() {
+            if (healthChecker != null) {
+                healthChecker.shutdownNow();
+            }
+            replicaPools.forEach(HikariDataSource::close);
+        }
+    }
+}
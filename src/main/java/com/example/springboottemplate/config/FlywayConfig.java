@@ -0,0 +1,79 @@
+package com.example.springboottemplate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+
+/**
+ * Opt-in skip of the Flyway validation, for the instances started on demand. Validation compares every applied
+ * migration with the one on the classpath; once an instance of a release has validated the schema, the others can
+ * trust a checksum of the applied history instead. Each start logs the checksum of the history it validated: set
+ * employee.flyway.validated-checksum to it, for that release only, and the next starts skip the validation while
+ * the history still has this checksum. A history that changed since, or any other checksum, is validated as usual.
+ * Pending migrations are applied either way.
+ */
+@Configuration(proxyBeanMethods = false)
+@Slf4j
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy validatedChecksumMigrationStrategy(
+            @Value("${employee.flyway.validated-checksum:}") String validatedChecksum) {
+        return flyway -> {
+            if (!validatedChecksum.isEmpty() && validatedChecksum.equals(appliedChecksum(flyway.getConfiguration()))) {
+                log.info("Applied migrations match the validated checksum {}, skipping their validation", validatedChecksum);
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                        .configuration(flyway.getConfiguration())
+                        .validateOnMigrate(false)
+                        .load()
+                        .migrate();
+                return;
+            }
+            flyway.migrate();
+            log.info("Applied migrations validated, checksum {}", appliedChecksum(flyway.getConfiguration()));
+        };
+    }
+
+    /**
+     * @return SHA-256 of the version and Flyway checksum of each successful versioned migration, in the order they
+     * were applied, or null when there is no history yet
+     */
+    static String appliedChecksum(org.flywaydb.core.api.configuration.Configuration configuration) {
+        String table = "\"" + configuration.getTable() + "\"";
+        String schema = configuration.getDefaultSchema() != null ? configuration.getDefaultSchema()
+                : configuration.getSchemas().length > 0 ? configuration.getSchemas()[0] : null;
+        // Quoted like Flyway creates them, H2 would upper-case them otherwise
+        String sql = "SELECT \"version\", \"checksum\" FROM " + (schema != null ? "\"" + schema + "\"." + table : table)
+                + " WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"";
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (Connection connection = configuration.getDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                digest.update((rs.getString("version") + ":" + rs.getString("checksum") + "\n")
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (SQLException e) {
+            // No history table, nothing validated yet
+            return null;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springboottemplate.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics beyond what Actuator instruments on its own (HTTP requests, Spring Data repositories, Hikari pool,
+ * Hibernate statistics, caches): @Timed service methods, JDBC statements and statements per request.
+ * Distribution settings are in the management.metrics properties of application.yaml.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    /**
+     * Makes @Timed work on any bean, not only on controllers
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Wraps the DataSource so that every statement goes through QueryMetricsListener.
+     * The proxy unwraps to the pool, so Hikari metrics are still bound to it.
+     */
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryMetricsListener(meterRegistry))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public QueryCountFilter queryCountFilter(MeterRegistry meterRegistry,
+                                             @Value("${employee.metrics.query-count-warn-threshold:20}") int warnThreshold) {
+        return new QueryCountFilter(meterRegistry, warnThreshold);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springboottemplate.config;
+
+import com.example.springboottemplate.dto.BatchItemResult;
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.dto.EmployeeProjectionPage;
+import com.example.springboottemplate.dto.EmployeeSearchCriteria;
+import com.example.springboottemplate.entity.Employee;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * GraalVM native image hints for what AOT processing cannot infer from the bean definitions and controller signatures.
+ * Only used when building with the native Maven profile, the JVM ignores them.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeConfig.EmployeeRuntimeHints.class)
+public class NativeConfig {
+
+    static class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Hibernate reads and writes the fields, Jackson and the fields parameter go through the Lombok accessors
+            hints.reflection().registerType(Employee.class, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            // Request and response bodies that are not visible in handler signatures (generics, Map projections,
+            // @ModelAttribute binding of the search criteria, server-sent events of the change feed)
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Employee.class,
+                    EmployeePage.class, EmployeeProjectionPage.class, EmployeeSearchCriteria.class, BatchResult.class,
+                    BatchItemResult.class, EmployeeChange.class);
+            // JPQL constructor expression of EmployeeRepository.findCollectionVersion
+            hints.reflection().registerType(EmployeeCollectionVersion.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // Only db/migration is registered by Spring Boot, not the vendor-specific location
+            hints.resources().registerPattern("db/vendor/*/*.sql");
+            // Defaults of the Caffeine JCache provider behind the second-level cache (see SecondLevelCacheConfig)
+            hints.resources().registerPattern("reference.conf");
+
+            // JDK proxies created by datasource-proxy around every JDBC object (see MetricsConfig)
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Connection.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Statement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, PreparedStatement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, CallableStatement.class);
+        }
+    }
+}
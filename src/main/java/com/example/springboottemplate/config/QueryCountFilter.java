@@ -0,0 +1,54 @@
+package com.example.springboottemplate.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many JDBC statements each request executed, as http.server.requests.queries tagged like
+ * http.server.requests, and logs requests above the threshold, so that N+1 selects show up as soon as they appear.
+ * Statements run after the request thread is released, e.g. by streaming responses, are not counted.
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    private final int warnThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry, int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryMetricsListener.startCounting();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = QueryMetricsListener.stopCounting();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("JDBC statements executed per request")
+                    .baseUnit("queries")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(queries);
+            if (queries > warnThreshold) {
+                log.warn("{} {} executed {} queries", request.getMethod(), uri, queries);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.springboottemplate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC statement, whoever issues it (Hibernate, JdbcTemplate, Flyway), as jdbc.query tagged with the
+ * statement type, and counts it for the current request. A JDBC batch is a single round trip, so it counts once.
+ */
+public class QueryMetricsListener implements QueryExecutionListener {
+
+    private static final String START_TIME = QueryMetricsListener.class.getName() + ".startTime";
+
+    private static final ThreadLocal<int[]> REQUEST_QUERY_COUNT = new ThreadLocal<>();
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public QueryMetricsListener(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts counting the statements executed by the current thread
+     */
+    public static void startCounting() {
+        REQUEST_QUERY_COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return the number of statements executed by the current thread since startCounting
+     */
+    public static int stopCounting() {
+        int[] count = REQUEST_QUERY_COUNT.get();
+        REQUEST_QUERY_COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_TIME, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        int[] count = REQUEST_QUERY_COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+
+        // The registry is created after the DataSource, Flyway migrations run before it exists
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Long startTime = execInfo.getCustomValue(START_TIME, Long.class);
+        if (registry == null || startTime == null) {
+            return;
+        }
+        String type = queryInfoList.isEmpty() ? "other"
+                : QueryUtils.getQueryType(queryInfoList.get(0).getQuery()).name().toLowerCase(Locale.ROOT);
+        Timer.builder("jdbc.query")
+                .description("JDBC statement executions")
+                .tag("type", type)
+                .tag("batch", String.valueOf(execInfo.isBatch()))
+                .tag("outcome", execInfo.isSuccess() ? "success" : "error")
+                .register(registry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+}
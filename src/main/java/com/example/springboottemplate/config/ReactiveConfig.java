@@ -0,0 +1,68 @@
+package com.example.springboottemplate.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * R2DBC connection pool for the reactive profile, over the same database that Flyway migrates through JDBC.
+ * The connection comes from Docker Compose when it is running, otherwise from the spring.r2dbc properties.
+ * The pool is deliberately not a ConnectionFactory bean: Spring Boot would then stop configuring the JDBC
+ * DataSource that Flyway and the servlet components rely on.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(ObjectProvider<R2dbcConnectionDetails> connectionDetails,
+                                         @Value("${spring.r2dbc.url:}") String url,
+                                         @Value("${spring.r2dbc.username:}") String username,
+                                         @Value("${spring.r2dbc.password:}") String password,
+                                         @Value("${spring.r2dbc.pool.max-size:20}") int maxSize) {
+        ConnectionFactoryOptions options = connectionDetails.getIfAvailable(() -> () -> {
+            ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(url).mutate();
+            if (!username.isEmpty()) {
+                builder.option(ConnectionFactoryOptions.USER, username);
+            }
+            if (!password.isEmpty()) {
+                builder.option(ConnectionFactoryOptions.PASSWORD, password);
+            }
+            return builder.build();
+        }).getConnectionFactoryOptions();
+
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Transactions of the R2DBC connections. Their transaction manager is not a bean either, the JPA one would back off.
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(DatabaseClient databaseClient) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(databaseClient.getConnectionFactory()));
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.springboottemplate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes on top of the read replicas. A request with a method that may write answers with a cookie that
+ * expires after the window, and the read-only transactions of requests carrying that cookie, like those of the
+ * writing request itself, read from the primary, which the replicas may lag behind. The asynchronous part of the
+ * request, such as a streamed response, reads from the primary as well, see DataSourceRoutingConfig.
+ * <p>
+ * Only clients that send the cookie back are covered: those that ignore cookies, like most service-to-service
+ * callers, may read from a replica that has not caught up with their write yet.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "employee-read-primary";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final int windowSeconds;
+
+    public ReadYourWritesFilter(Duration window) {
+        // Cookies expire in whole seconds
+        this.windowSeconds = (int) Math.max(1, (window.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            Cookie cookie = new Cookie(COOKIE_NAME, "1");
+            cookie.setMaxAge(windowSeconds);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        if (write || WebUtils.getCookie(request, COOKIE_NAME) != null) {
+            ReplicaDataSource.readFromPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaDataSource.clearReadFromPrimary();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.springboottemplate.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Read-only transactions that may be routed to a replica read the second-level cache but put nothing in it. A replica
+ * lagging behind a write would otherwise put back the employee the write evicted, and the reads from the primary of
+ * EmployeeService.getEmployeeById would then get that stale copy from the second-level cache and cache it again in
+ * the employees cache. The session gets its cache mode back when the transaction ends, as it may outlive it.
+ */
+class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReplicaDataSource.isReadFromPrimary()) {
+            return transactionData;
+        }
+        Session session = getSession(entityManager);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaTransactionData) {
+            replicaTransactionData.session().setCacheMode(replicaTransactionData.previousCacheMode());
+            super.cleanupTransaction(replicaTransactionData.transactionData());
+            return;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode) {
+    }
+}
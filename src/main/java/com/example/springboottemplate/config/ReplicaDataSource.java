@@ -0,0 +1,145 @@
+package com.example.springboottemplate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Connections of read-only transactions: taken round-robin from the healthy replicas, or from the primary when the
+ * current request must read its own writes or when no replica can be reached. A replica that fails to give a
+ * connection is skipped until the next health check finds it valid again.
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<DataSource> replicas;
+
+    private final List<String> names;
+
+    /**
+     * 1 when the replica at that index is healthy
+     */
+    private final AtomicIntegerArray healthy;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaDataSource(DataSource primary, List<DataSource> replicas, List<String> names) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.names = List.copyOf(names);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            healthy.set(i, 1);
+        }
+    }
+
+    /**
+     * Sends the read-only transactions of the current thread to the primary, until clearReadFromPrimary
+     */
+    public static void readFromPrimary() {
+        READ_FROM_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static void clearReadFromPrimary() {
+        READ_FROM_PRIMARY.remove();
+    }
+
+    /**
+     * @return true when the read-only transactions of the current thread are sent to the primary
+     */
+    public static boolean isReadFromPrimary() {
+        return READ_FROM_PRIMARY.get() != null;
+    }
+
+    /**
+     * @return the task, sending its read-only transactions to the primary when those of the current thread are
+     */
+    public static Runnable propagateReadFromPrimary(Runnable task) {
+        if (!isReadFromPrimary()) {
+            return task;
+        }
+        return () -> {
+            // The task may run on the thread that submitted it, which keeps reading from the primary
+            boolean readFromPrimary = isReadFromPrimary();
+            readFromPrimary();
+            try {
+                task.run();
+            } finally {
+                if (!readFromPrimary) {
+                    clearReadFromPrimary();
+                }
+            }
+        };
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (READ_FROM_PRIMARY.get() == null) {
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            for (int i = 0; i < replicas.size(); i++) {
+                int index = (start + i) % replicas.size();
+                if (healthy.get(index) == 1) {
+                    try {
+                        return replicas.get(index).getConnection();
+                    } catch (SQLException e) {
+                        markUnhealthy(index, e);
+                    }
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the credentials of their pool");
+    }
+
+    /**
+     * Validates a connection of every replica, bringing back the ones that recovered
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (!connection.isValid(2)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (healthy.getAndSet(i, 1) == 0) {
+                    log.info("Replica {} is back, reading from it again", names.get(i));
+                }
+            } catch (SQLException e) {
+                markUnhealthy(i, e);
+            }
+        }
+    }
+
+    /**
+     * @return health of each replica, by name
+     */
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            health.put(names.get(i), healthy.get(i) == 1);
+        }
+        return health;
+    }
+
+    private void markUnhealthy(int index, SQLException e) {
+        if (healthy.getAndSet(index, 0) == 1) {
+            log.warn("Replica {} is unavailable, reading from the other replicas or the primary: {}", names.get(index), e.getMessage());
+        }
+    }
+}
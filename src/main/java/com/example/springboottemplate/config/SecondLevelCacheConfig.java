@@ -0,0 +1,89 @@
+package com.example.springboottemplate.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache, in Caffeine through JCache: Employee entities by id, and the results of the
+ * repository queries marked cacheable. Unlike the employees cache of CacheConfig, it sits below the service layer,
+ * so every query that returns employees benefits from it. Regions are sized in the employee.second-level-cache
+ * properties of application.yaml, and their hit and miss counts are exposed by the hibernate.second.level.cache
+ * and hibernate.cache.query meters when hibernate.generate_statistics is on.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfig {
+
+    /**
+     * Employees by id, see the @Cache annotation of Employee
+     */
+    public static final String EMPLOYEE_REGION = "employee";
+
+    /**
+     * A cache manager of its own, rather than the JVM-wide default one, so that each application context
+     * creates and closes its regions independently
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "employee.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public CacheManager secondLevelCacheManager(
+            @Value("${employee.second-level-cache.employee-region.maximum-size:10000}") long employeeMaximumSize,
+            @Value("${employee.second-level-cache.employee-region.expire-after-write:10m}") Duration employeeExpireAfterWrite,
+            @Value("${employee.second-level-cache.query-region.maximum-size:1000}") long queryMaximumSize,
+            @Value("${employee.second-level-cache.query-region.expire-after-write:10m}") Duration queryExpireAfterWrite,
+            @Value("${employee.second-level-cache.timestamps-region.maximum-size:1000}") long timestampsMaximumSize) {
+        CaffeineCachingProvider provider = new CaffeineCachingProvider();
+        CacheManager cacheManager = provider.getCacheManager(URI.create("employee-second-level-cache-" + UUID.randomUUID()),
+                getClass().getClassLoader());
+        cacheManager.createCache(EMPLOYEE_REGION, region(employeeMaximumSize, employeeExpireAfterWrite));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(queryMaximumSize, queryExpireAfterWrite));
+        // Last update of each table, checked against every cached query result: never expires, a table whose
+        // timestamp is gone would have its stale query results served as fresh
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                region(timestampsMaximumSize, null));
+        return cacheManager;
+    }
+
+    /**
+     * Turns the cache off explicitly when disabled: Hibernate would otherwise find hibernate-jcache on the classpath
+     * and use it with the regions of the JVM-wide cache manager, created on the fly and unbounded
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ObjectProvider<CacheManager> secondLevelCacheManager) {
+        return properties -> {
+            CacheManager cacheManager = secondLevelCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, false);
+                properties.put(CacheSettings.USE_QUERY_CACHE, false);
+                return;
+            }
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(CacheSettings.USE_QUERY_CACHE, true);
+            properties.put(CacheSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+            // Every region is sized above, a region Hibernate would create with the provider defaults is a mistake
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration expireAfterWrite) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maximumSize))
+                .setExpireAfterWrite(expireAfterWrite == null ? OptionalLong.empty() : OptionalLong.of(expireAfterWrite.toNanos()))
+                .setStatisticsEnabled(true);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.springboottemplate.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets by key, a client or a client and an endpoint. Each bucket holds up to burst tokens and is refilled
+ * at rate tokens per second, a request is admitted when it can take a token from its bucket. Buckets left unused
+ * for idle-timeout are dropped, a full bucket is recreated the next time, so the number of clients is not a leak.
+ */
+public class TokenBucketRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final LongSupplier nanoClock;
+
+    public TokenBucketRateLimiter(Duration idleTimeout, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder().expireAfterAccess(idleTimeout).build();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return 0 when the request is admitted, otherwise the nanoseconds until the bucket has a token again
+     */
+    public long tryAcquire(String key, RateLimit limit) {
+        long now = nanoClock.getAsLong();
+        return buckets.get(key, k -> new TokenBucket(limit, now)).tryConsume(now);
+    }
+
+    /**
+     * Gives back the token taken by tryAcquire for a request that was rejected afterwards
+     */
+    public void release(String key) {
+        TokenBucket bucket = buckets.getIfPresent(key);
+        if (bucket != null) {
+            bucket.release();
+        }
+    }
+
+    /**
+     * @return number of buckets in use
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * @param rate - tokens added per second
+     * @param burst - maximum number of tokens, the number of requests admitted at once after an idle period
+     */
+    public record RateLimit(double rate, int burst) {
+    }
+
+    private static final class TokenBucket {
+
+        private final double tokensPerNano;
+
+        private final int burst;
+
+        private double tokens;
+
+        private long refilledAt;
+
+        private TokenBucket(RateLimit limit, long now) {
+            this.tokensPerNano = limit.rate() / 1_000_000_000d;
+            this.burst = limit.burst();
+            this.tokens = limit.burst();
+            this.refilledAt = now;
+        }
+
+        private synchronized long tryConsume(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        private synchronized void release() {
+            tokens = Math.min(burst, tokens + 1);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeBatchService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk endpoints. Every request body is either a JSON array or an NDJSON stream (one JSON document per line);
+ * both are read item by item, so the whole request never has to fit in memory.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/employee/v1/batch")
+public class EmployeeBatchController {
+
+    private final EmployeeBatchService employeeBatchService;
+
+    private final ObjectMapper objectMapper;
+
+    public EmployeeBatchController(EmployeeBatchService employeeBatchService, ObjectMapper objectMapper) {
+        this.employeeBatchService = employeeBatchService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * This method is called when a POST request is made
+     * URL: localhost:8080/employee/v1/batch/
+     * Purpose: Save many Employee entities
+     * @param body - Request body is an array or NDJSON stream of Employee entities
+     * @return Outcome of each employee, with the ids of the saved ones
+     */
+    @PostMapping(value = "/", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResult> saveEmployees(InputStream body) throws IOException
+    {
+        try (MappingIterator<Employee> employees = objectMapper.readerFor(Employee.class).readValues(body)) {
+            return ResponseEntity.ok().body(employeeBatchService.createEmployees(employees));
+        }
+    }
+
+    /**
+     * This method is called when a PUT request is made
+     * URL: localhost:8080/employee/v1/batch/
+     * Purpose: Update many Employee entities
+     * @param body - Request body is an array or NDJSON stream of Employee entities
+     * @return Outcome of each employee
+     */
+    @PutMapping(value = "/", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResult> updateEmployees(InputStream body) throws IOException
+    {
+        try (MappingIterator<Employee> employees = objectMapper.readerFor(Employee.class).readValues(body)) {
+            return ResponseEntity.ok().body(employeeBatchService.updateEmployees(employees));
+        }
+    }
+
+    /**
+     * This method is called when a DELETE request is made
+     * URL: localhost:8080/employee/v1/batch/
+     * Purpose: Delete many Employee entities
+     * @param body - Request body is an array or NDJSON stream of employee ids
+     * @return Outcome of each id
+     */
+    @DeleteMapping(value = "/", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResult> deleteEmployeesById(InputStream body) throws IOException
+    {
+        try (MappingIterator<Integer> ids = objectMapper.readerFor(Integer.class).readValues(body)) {
+            return ResponseEntity.ok().body(employeeBatchService.deleteEmployeesById(ids));
+        }
+    }
+
+}
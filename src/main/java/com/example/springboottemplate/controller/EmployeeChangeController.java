@@ -0,0 +1,64 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.EmployeeChangePage;
+import com.example.springboottemplate.service.EmployeeChangeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Change feed of the employees, for clients that keep a copy of the collection: a search index, a cache, another
+ * service. They read all the employees once, then apply the changes that follow the sequence number of the last
+ * change they applied.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/employee/v1/changes")
+public class EmployeeChangeController {
+
+    private final EmployeeChangeService employeeChangeService;
+
+    private final int defaultPageSize;
+
+    public EmployeeChangeController(EmployeeChangeService employeeChangeService,
+                                    @Value("${employee.pagination.default-page-size:50}") int defaultPageSize) {
+        this.employeeChangeService = employeeChangeService;
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/changes/?since=0&limit=50
+     * Purpose: Fetches the changes that follow a sequence number, in sequence order. Answers 410 Gone when
+     * some of them were already pruned, the client then has to read all the employees again.
+     * @param since - sequence number of the last change applied, 0 for all of them
+     * @param limit - maximum number of changes, employee.pagination.default-page-size when missing
+     * @return Changes with the current state of their employee, and the since of the next request
+     */
+    @GetMapping("/")
+    public ResponseEntity<EmployeeChangePage> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(required = false) Integer limit)
+    {
+        return ResponseEntity.ok().body(employeeChangeService.getChanges(since, limit == null ? defaultPageSize : limit));
+    }
+
+    /**
+     * This method is called when a GET request is made with Accept: text/event-stream
+     * URL: localhost:8080/employee/v1/changes/?since=0
+     * Purpose: Streams the changes that follow a sequence number, then each new change, as employee-change events
+     * whose id is the sequence number of the change
+     * @param since - sequence number of the last change applied, 0 for all of them
+     * @param lastEventId - sent by EventSource clients when they reconnect, takes precedence over since
+     * @return Server-sent events, until employee.changes.sse-timeout or the shutdown of the instance
+     */
+    @GetMapping(value = "/", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId)
+    {
+        return employeeChangeService.subscribe(lastEventId == null ? since : lastEventId);
+    }
+
+}
@@ -1,46 +1,301 @@
 package com.example.springboottemplate.controller;
 
+import com.example.springboottemplate.config.BinaryFormatConfig;
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
+import com.example.springboottemplate.dto.EmployeeMultiGetResult;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.dto.EmployeeProjectionPage;
+import com.example.springboottemplate.dto.EmployeeSearchCriteria;
 import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.InvalidPatchException;
+import com.example.springboottemplate.exception.UnknownFieldException;
+import com.example.springboottemplate.exception.VersionRequiredException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.example.springboottemplate.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/employee/v1")
 public class EmployeeController {
 
+    /**
+     * Attributes maintained by the application, that a partial update cannot set
+     */
+    private static final Set<String> READ_ONLY_ATTRIBUTES = Set.of("id", "createdAt", "updatedAt");
+
     private final EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService) {
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper cborObjectMapper;
+
+    private final ObjectMapper smileObjectMapper;
+
+    private final Validator validator;
+
+    /**
+     * Employee property behind each JSON property name, for the fields parameter and partial updates
+     */
+    private final Map<String, BeanPropertyDefinition> propertiesByField;
+
+    private final Map<String, String> attributesByField;
+
+    /**
+     * JSON property of each Employee attribute, null when they have the same names
+     */
+    private final Map<String, String> fieldsByAttribute;
+
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper, Validator validator) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.cborObjectMapper = BinaryFormatConfig.cborMapper(objectMapper);
+        this.smileObjectMapper = BinaryFormatConfig.smileMapper(objectMapper);
+        this.validator = validator;
+        this.propertiesByField = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(Employee.class))
+                .findProperties().stream()
+                .collect(Collectors.toMap(BeanPropertyDefinition::getName, Function.identity()));
+        this.attributesByField = propertiesByField.values().stream()
+                .collect(Collectors.toMap(BeanPropertyDefinition::getName, BeanPropertyDefinition::getInternalName));
+        this.fieldsByAttribute = attributesByField.entrySet().stream().allMatch(entry -> entry.getKey().equals(entry.getValue()))
+                ? null
+                : attributesByField.entrySet().stream().collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
     }
 
     /**
      * This method is called when a GET request is made
      * URL: localhost:8080/employee/v1/
-     * Purpose: Fetches all the employees in the employee table
+     * Purpose: Fetches all the employees in the employee table. Answers 304 Not Modified, without reading the
+     * employees, when the If-None-Match or If-Modified-Since headers show the client already has this version.
+     * @param request - used to check the conditional request headers
      * @return List of Employees
      */
     @GetMapping("/")
-    public ResponseEntity<List<Employee>> getAllEmployees(){
+    public ResponseEntity<List<Employee>> getAllEmployees(WebRequest request){
+        EmployeeCollectionVersion version = employeeService.getEmployeeCollectionVersion();
+        long lastModified = version.getLastUpdatedAt() == null ? -1 : toEpochMilli(version.getLastUpdatedAt());
+        String eTag = "\"" + version.getCount() + "-" + Math.max(lastModified, 0) + "\"";
+        if (request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
         return ResponseEntity.ok().body(employeeService.getAllEmployees());
     }
 
+    /**
+     * This method is called when a GET request is made with a fields parameter
+     * URL: localhost:8080/employee/v1/?fields=id,firstName,lastName,designation
+     * Purpose: Fetches the given fields of all the employees, only those columns are read from the employee table
+     * @param fields - JSON names of the fields to return
+     * @return List of Employees restricted to the given fields
+     */
+    @GetMapping(value = "/", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllEmployees(@RequestParam List<String> fields){
+        return ResponseEntity.ok().body(toFields(employeeService.getAllEmployees(toAttributes(fields))));
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/page?cursor=MjA&size=50
+     * Purpose: Fetches one page of employees, ordered by id
+     * @param cursor - next_cursor of the previous page, omitted for the first page
+     * @param size - number of employees per page, defaults to the configured page size
+     * @return Page of Employees and the cursor of the next page
+     */
+    @GetMapping("/page")
+    public ResponseEntity<EmployeePage> getEmployeePage(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size)
+    {
+        return ResponseEntity.ok().body(employeeService.getEmployeePage(cursor, size));
+    }
+
+    /**
+     * This method is called when a GET request is made with a fields parameter
+     * URL: localhost:8080/employee/v1/page?fields=firstName,lastName&cursor=MjA&size=50
+     * Purpose: Fetches the given fields, and the id, of one page of employees, ordered by id
+     * @param fields - JSON names of the fields to return
+     * @param cursor - next_cursor of the previous page, omitted for the first page
+     * @param size - number of employees per page, defaults to the configured page size
+     * @return Page of Employees restricted to the given fields and the cursor of the next page
+     */
+    @GetMapping(value = "/page", params = "fields")
+    public ResponseEntity<EmployeeProjectionPage> getEmployeePage(@RequestParam List<String> fields,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size)
+    {
+        EmployeeProjectionPage page = employeeService.getEmployeePage(cursor, size, toAttributes(fields));
+        return ResponseEntity.ok().body(new EmployeeProjectionPage(toFields(page.getEmployees()), page.getNextCursor()));
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/search?designation=Engineer&lastNamePrefix=Ca&minAge=30&maxAge=50&joinedFrom=2023-01-01&joinedTo=2023-12-31&sort=lastName,desc&cursor=MjA&size=50
+     * Purpose: Fetches one page of the employees matching every given filter, sorted on id, lastName, age or joinedOn
+     * @param criteria - filters and sort order, all optional, to be repeated unchanged when fetching the next pages
+     * @param cursor - next_cursor of the previous page, omitted for the first page
+     * @param size - number of employees per page, defaults to the configured page size
+     * @return Page of matching Employees and the cursor of the next page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<EmployeePage> searchEmployees(EmployeeSearchCriteria criteria,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size)
+    {
+        return ResponseEntity.ok().body(employeeService.searchEmployees(criteria, cursor, size));
+    }
+
+    /**
+     * This method is called when a GET request is made with a fields parameter
+     * URL: localhost:8080/employee/v1/search?fields=firstName,lastName,designation&designation=Engineer&sort=lastName
+     * Purpose: Same as the search above, but only the given fields, and the id, are read and returned
+     * @param fields - JSON names of the fields to return
+     * @param criteria - filters and sort order, all optional, to be repeated unchanged when fetching the next pages
+     * @param cursor - next_cursor of the previous page, omitted for the first page
+     * @param size - number of employees per page, defaults to the configured page size
+     * @return Page of matching Employees restricted to the given fields and the cursor of the next page
+     */
+    @GetMapping(value = "/search", params = "fields")
+    public ResponseEntity<EmployeeProjectionPage> searchEmployees(@RequestParam List<String> fields,
+                                                                  EmployeeSearchCriteria criteria,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size)
+    {
+        EmployeeProjectionPage page = employeeService.searchEmployees(criteria, cursor, size, toAttributes(fields));
+        return ResponseEntity.ok().body(new EmployeeProjectionPage(toFields(page.getEmployees()), page.getNextCursor()));
+    }
+
+    /**
+     * This method is called when a GET request is made with "Accept: application/x-ndjson"
+     * URL: localhost:8080/employee/v1/stream
+     * Purpose: Streams all the employees in the employee table, one JSON document per line
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsNdjson()
+    {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> streamAllEmployees(objectMapper.writer().withRootValueSeparator("\n").writeValues(outputStream)));
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/stream
+     * Purpose: Streams all the employees in the employee table as a single JSON array
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsJsonArray()
+    {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> streamAllEmployees(objectMapper.writer().writeValuesAsArray(outputStream)));
+    }
+
+    /**
+     * This method is called when a GET request is made with "Accept: application/cbor"
+     * URL: localhost:8080/employee/v1/stream
+     * Purpose: Streams all the employees in the employee table as a single CBOR array of indefinite length
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsCborArray()
+    {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_CBOR)
+                .body(outputStream -> streamAllEmployees(cborObjectMapper.writer().writeValuesAsArray(outputStream)));
+    }
+
+    /**
+     * This method is called when a GET request is made with "Accept: application/x-jackson-smile"
+     * URL: localhost:8080/employee/v1/stream
+     * Purpose: Streams all the employees in the employee table as a single Smile array. Property names are written
+     * once, then referred to by index.
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/stream", produces = BinaryFormatConfig.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllEmployeesAsSmileArray()
+    {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(BinaryFormatConfig.APPLICATION_SMILE_VALUE))
+                .body(outputStream -> streamAllEmployees(smileObjectMapper.writer().writeValuesAsArray(outputStream)));
+    }
+
     /**
      * This method is called when a GET request is made
      * URL: localhost:8080/employee/v1/1 (or any other id)
-     * Purpose: Fetches employee with the given id
+     * Purpose: Fetches employee with the given id. The ETag header is the version and Last-Modified is updatedAt; a
+     * matching If-None-Match or If-Modified-Since header gets a 304 Not Modified without a body.
      * @param id - employee id
      * @return Employee with the given id
      */
     @GetMapping("/{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable Integer id)
     {
-        return ResponseEntity.ok().body(employeeService.getEmployeeById(id));
+        Employee employee = employeeService.getEmployeeById(id);
+        if (employee == null) {
+            return ResponseEntity.ok().body(null);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (employee.getVersion() != null) {
+            response.eTag(toETag(employee.getVersion()));
+        }
+        if (employee.getUpdatedAt() != null) {
+            response.lastModified(toEpochMilli(employee.getUpdatedAt()));
+        }
+        return response.body(employee);
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/by-ids?ids=3,1,2
+     * Purpose: Fetches the employees with the given ids in a single request, instead of a request per id
+     * @param ids - employee ids, comma separated or repeated
+     * @return Employees found, in the order of the ids, and the ids that matched no employee
+     */
+    @GetMapping("/by-ids")
+    public ResponseEntity<EmployeeMultiGetResult> getEmployeesByIds(@RequestParam List<Integer> ids)
+    {
+        return ResponseEntity.ok().body(employeeService.getEmployeesByIds(ids));
+    }
+
+    /**
+     * This method is called when a POST request is made
+     * URL: localhost:8080/employee/v1/by-ids
+     * Purpose: Same as the GET above, for lists of ids too long for a URL
+     * @param ids - Request body is an array of employee ids
+     * @return Employees found, in the order of the ids, and the ids that matched no employee
+     */
+    @PostMapping("/by-ids")
+    public ResponseEntity<EmployeeMultiGetResult> getEmployeesByIdsInBody(@RequestBody List<Integer> ids)
+    {
+        return ResponseEntity.ok().body(employeeService.getEmployeesByIds(ids));
     }
 
     /**
@@ -69,6 +324,29 @@ public class EmployeeController {
         return ResponseEntity.ok().body(employeeService.updateEmployee(employee));
     }
 
+    /**
+     * This method is called when a PATCH request is made
+     * URL: localhost:8080/employee/v1/1 (or any other id)
+     * Purpose: Update some fields of an Employee entity in a single statement, if it is still at the version the
+     * client read: the ETag sent in the If-Match header, or else the version field of the body
+     * @param id - employee id
+     * @param ifMatch - ETag of the employee version the changes apply to
+     * @param patch - Request body holds the fields to change and their new values
+     * @return 204 No Content with the ETag of the new version, 409 Conflict when the employee was modified since
+     */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<Void> patchEmployee(@PathVariable Integer id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @RequestBody ObjectNode patch)
+    {
+        Integer version = ifMatch != null ? fromETag(ifMatch) : patch.hasNonNull("version") ? fromVersionField(patch.get("version")) : null;
+        if (version == null) {
+            throw new VersionRequiredException(id);
+        }
+        int newVersion = employeeService.patchEmployee(id, version, toAttributeValues(patch));
+        return ResponseEntity.noContent().eTag(toETag(newVersion)).build();
+    }
+
     /**
      * This method is called when a PUT request is made
      * URL: localhost:8080/employee/v1/1 (or any other id)
@@ -83,4 +361,106 @@ public class EmployeeController {
         return ResponseEntity.ok().body("Deleted employee successfully");
     }
 
+    private static String toETag(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    private static Integer fromETag(String eTag) {
+        String value = eTag.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            try {
+                return Integer.valueOf(value.substring(1, value.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not one of our ETags
+            }
+        }
+        throw new InvalidPatchException("Invalid If-Match header: " + eTag + ", expected the ETag of the employee");
+    }
+
+    private static Integer fromVersionField(JsonNode version) {
+        if (!version.isInt()) {
+            throw new InvalidPatchException("Invalid value for version: " + version + ", expected the version of the employee");
+        }
+        return version.intValue();
+    }
+
+    /**
+     * Converts each field of the patch to the type of its Employee attribute and validates it
+     */
+    private Map<String, Object> toAttributeValues(ObjectNode patch) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> field : patch.properties()) {
+            BeanPropertyDefinition property = propertiesByField.get(field.getKey());
+            if (property == null) {
+                throw new UnknownFieldException(field.getKey());
+            }
+            String attribute = property.getInternalName();
+            if (attribute.equals("version")) {
+                continue;
+            }
+            if (READ_ONLY_ATTRIBUTES.contains(attribute)) {
+                throw new InvalidPatchException(field.getKey() + " cannot be changed");
+            }
+
+            Object value;
+            try {
+                value = objectMapper.treeToValue(field.getValue(), property.getRawPrimaryType());
+            } catch (JsonProcessingException e) {
+                throw new InvalidPatchException("Invalid value for " + field.getKey() + ": " + e.getOriginalMessage());
+            }
+            String violations = validator.validateValue(Employee.class, attribute, value).stream()
+                    .map(violation -> field.getKey() + " " + violation.getMessage())
+                    .collect(Collectors.joining(", "));
+            if (!violations.isEmpty()) {
+                throw new InvalidPatchException(violations);
+            }
+            values.put(attribute, value);
+        }
+        return values;
+    }
+
+    /**
+     * Timestamps are stored without a zone, in the zone of the server that wrote them
+     */
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private List<String> toAttributes(List<String> fields) {
+        return fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .map(field -> Optional.ofNullable(attributesByField.get(field)).orElseThrow(() -> new UnknownFieldException(field)))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Renames the attributes of each employee to their JSON names, which only differ under a naming strategy
+     */
+    private List<Map<String, Object>> toFields(List<Map<String, Object>> employees) {
+        if (fieldsByAttribute == null) {
+            return employees;
+        }
+        return employees.stream()
+                .map(employee -> {
+                    Map<String, Object> fields = new LinkedHashMap<>();
+                    employee.forEach((attribute, value) -> fields.put(fieldsByAttribute.get(attribute), value));
+                    return fields;
+                })
+                .toList();
+    }
+
+    private void streamAllEmployees(SequenceWriter sequenceWriter) throws IOException {
+        try (sequenceWriter) {
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    sequenceWriter.write(employee);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
 }
@@ -0,0 +1,62 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.IngestResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeIngestService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Asynchronous creation of employees, for bulk imports whose clients cannot wait for each insert to commit.
+ * Only exposed when employee.ingest.enabled is true.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+@RequestMapping("/employee/v1/ingest")
+public class EmployeeIngestController {
+
+    private final EmployeeIngestService employeeIngestService;
+
+    public EmployeeIngestController(EmployeeIngestService employeeIngestService) {
+        this.employeeIngestService = employeeIngestService;
+    }
+
+    /**
+     * This method is called when a POST request is made
+     * URL: localhost:8080/employee/v1/ingest/
+     * Purpose: Queue an Employee entity for creation. The employee is durably journaled before the response,
+     * and written to the database in a later batch. Answers 429 Too Many Requests when the queue is full.
+     * @param employee - Request body is an Employee entity
+     * @return Tracking id of the employee, whose status is at the URL of the Location header
+     */
+    @PostMapping("/")
+    public ResponseEntity<IngestResult> ingestEmployee(@Valid @RequestBody Employee employee)
+    {
+        IngestResult result = employeeIngestService.accept(employee);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/employee/v1/ingest/{trackingId}")
+                        .buildAndExpand(result.getTrackingId())
+                        .toUri())
+                .body(result);
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/ingest/{trackingId}
+     * Purpose: Fetches the status of a queued Employee entity
+     * @param trackingId - tracking id returned when the employee was queued
+     * @return PENDING, CREATED with the id of the employee, or FAILED with the reason
+     */
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<IngestResult> getIngestStatus(@PathVariable String trackingId)
+    {
+        return ResponseEntity.ok().body(employeeIngestService.getStatus(trackingId));
+    }
+
+}
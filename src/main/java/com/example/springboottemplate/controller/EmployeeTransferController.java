@@ -0,0 +1,160 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.ImportResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeImportService;
+import com.example.springboottemplate.service.EmployeeService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Export and import of the whole employee collection, as CSV with a header line or as NDJSON. Both directions are
+ * streamed: the export is written as the employees are read from the database cursor, the import is inserted as it
+ * is read, so neither has to fit in memory. Exports are gzipped for clients sending Accept-Encoding: gzip (see
+ * server.compression), imports may be gzipped with Content-Encoding: gzip.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/employee/v1")
+public class EmployeeTransferController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EmployeeService employeeService;
+
+    private final EmployeeImportService employeeImportService;
+
+    private final ObjectWriter csvWriter;
+
+    private final ObjectReader csvReader;
+
+    private final ObjectWriter ndjsonWriter;
+
+    private final ObjectReader ndjsonReader;
+
+    public EmployeeTransferController(EmployeeService employeeService, EmployeeImportService employeeImportService,
+                                      ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.employeeImportService = employeeImportService;
+        // Same properties and value formats as the JSON of the API, one column per property
+        ObjectMapper csvMapper = objectMapper.copyWith(new CsvFactory());
+        CsvSchema.Builder schema = CsvSchema.builder().setUseHeader(true);
+        objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(Employee.class))
+                .findProperties()
+                .forEach(property -> schema.addColumn(property.getName()));
+        this.csvWriter = csvMapper.writerFor(Employee.class).with(schema.build());
+        // Columns are matched by the names of the header line, in any order, and empty values are nulls
+        this.csvReader = csvMapper.readerFor(Employee.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        this.ndjsonWriter = objectMapper.writerFor(Employee.class).withRootValueSeparator("\n");
+        this.ndjsonReader = objectMapper.readerFor(Employee.class);
+    }
+
+    /**
+     * This method is called when a GET request is made with "Accept: text/csv"
+     * URL: localhost:8080/employee/v1/export
+     * Purpose: Exports all the employees in the employee table, with a header line naming the columns
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployeesAsCsv()
+    {
+        return export(MediaType.parseMediaType(TEXT_CSV_VALUE), "employees.csv", csvWriter);
+    }
+
+    /**
+     * This method is called when a GET request is made with "Accept: application/x-ndjson"
+     * URL: localhost:8080/employee/v1/export
+     * Purpose: Exports all the employees in the employee table, one JSON document per line
+     * @return Employees written to the response as they are read from the database
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployeesAsNdjson()
+    {
+        return export(MediaType.APPLICATION_NDJSON, "employees.ndjson", ndjsonWriter);
+    }
+
+    /**
+     * This method is called when a POST request is made with "Content-Type: text/csv"
+     * URL: localhost:8080/employee/v1/import
+     * Purpose: Creates an Employee entity for each line of a CSV file with a header line, as exported. Ids, versions
+     * and creation times of the file are ignored. Answers 400 Bad Request, and imports nothing, when the file
+     * cannot be read to the end.
+     * @param body - Request body is a CSV file, gzipped when Content-Encoding is gzip
+     * @param contentEncoding - Content-Encoding header
+     * @return Number of employees imported and rejected, with the reason of the first rejections
+     */
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportResult> importEmployeesFromCsv(InputStream body,
+                                                               @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+            throws IOException
+    {
+        return importEmployees(csvReader, body, contentEncoding);
+    }
+
+    /**
+     * This method is called when a POST request is made with "Content-Type: application/x-ndjson"
+     * URL: localhost:8080/employee/v1/import
+     * Purpose: Creates an Employee entity for each line of an NDJSON file. Ids, versions and creation times of the
+     * file are ignored. Answers 400 Bad Request, and imports nothing, when the file cannot be read to the end.
+     * @param body - Request body is an NDJSON file, gzipped when Content-Encoding is gzip
+     * @param contentEncoding - Content-Encoding header
+     * @return Number of employees imported and rejected, with the reason of the first rejections
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResult> importEmployeesFromNdjson(InputStream body,
+                                                                  @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+            throws IOException
+    {
+        return importEmployees(ndjsonReader, body, contentEncoding);
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(MediaType mediaType, String filename, ObjectWriter writer) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(outputStream -> {
+                    try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+                        employeeService.streamAllEmployees(employee -> {
+                            try {
+                                sequenceWriter.write(employee);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        });
+                    }
+                });
+    }
+
+    private ResponseEntity<ImportResult> importEmployees(ObjectReader reader, InputStream body, String contentEncoding)
+            throws IOException
+    {
+        InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, BUFFER_SIZE) : body;
+        try (MappingIterator<Employee> employees = reader.readValues(input)) {
+            return ResponseEntity.ok().body(employeeImportService.importEmployees(employees));
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.ReactiveEmployeeService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same /employee/v1 contract as EmployeeController, served by WebFlux and R2DBC when the reactive profile is active
+ */
+@RestController
+@RequestMapping("/employee/v1")
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService reactiveEmployeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService reactiveEmployeeService) {
+        this.reactiveEmployeeService = reactiveEmployeeService;
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/
+     * Purpose: Fetches all the employees in the employee table. With "Accept: application/x-ndjson" or
+     * "text/event-stream" each employee is written as soon as it is read, at the pace the client consumes them.
+     * @return Flux of Employees
+     */
+    @GetMapping(value = "/", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Employee> getAllEmployees(){
+        return reactiveEmployeeService.getAllEmployees();
+    }
+
+    /**
+     * This method is called when a GET request is made
+     * URL: localhost:8080/employee/v1/1 (or any other id)
+     * Purpose: Fetches employee with the given id
+     * @param id - employee id
+     * @return Employee with the given id
+     */
+    @GetMapping("/{id}")
+    public Mono<Employee> getEmployeeById(@PathVariable Integer id)
+    {
+        return reactiveEmployeeService.getEmployeeById(id);
+    }
+
+    /**
+     * This method is called when a POST request is made
+     * URL: localhost:8080/employee/v1/
+     * Purpose: Save an Employee entity
+     * @param employee - Request body is an Employee entity
+     * @return Saved Employee entity
+     */
+    @PostMapping("/")
+    public Mono<Employee> saveEmployee(@Valid @RequestBody Employee employee)
+    {
+        return reactiveEmployeeService.saveEmployee(employee);
+    }
+
+    /**
+     * This method is called when a PUT request is made
+     * URL: localhost:8080/employee/v1/
+     * Purpose: Update an Employee entity
+     * @param employee - Employee entity to be updated
+     * @return Updated Employee
+     */
+    @PutMapping("/")
+    public Mono<Employee> updateEmployee(@Valid @RequestBody Employee employee)
+    {
+        return reactiveEmployeeService.updateEmployee(employee);
+    }
+
+    /**
+     * This method is called when a DELETE request is made
+     * URL: localhost:8080/employee/v1/1 (or any other id)
+     * Purpose: Delete an Employee entity
+     * @param id - employee's id to be deleted
+     * @return a String message indicating employee record has been deleted successfully
+     */
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteEmployeeById(@PathVariable Integer id)
+    {
+        return reactiveEmployeeService.deleteEmployeeById(id).thenReturn("Deleted employee successfully");
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a single item of a bulk request, identified by its position in the request
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchItemResult {
+
+    private int index;
+    private Integer id;
+    private BatchItemStatus status;
+    private String error;
+
+}
@@ -0,0 +1,11 @@
+package com.example.springboottemplate.dto;
+
+/**
+ * Outcome of a single item of a bulk request
+ */
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of a bulk request: how many items succeeded and failed, and the outcome of each item
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchResult {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResult> items;
+
+}
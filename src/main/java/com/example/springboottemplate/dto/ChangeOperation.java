@@ -0,0 +1,10 @@
+package com.example.springboottemplate.dto;
+
+/**
+ * What happened to an employee, in the change feed
+ */
+public enum ChangeOperation {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,25 @@
+package com.example.springboottemplate.dto;
+
+import com.example.springboottemplate.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the change feed. The employee is its current state rather than its state at the time of the change,
+ * null once it is deleted: applying the changes in sequence order as upserts and deletes gives the current table.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeChange {
+
+    private long sequence;
+    private Integer employeeId;
+    private ChangeOperation operation;
+    private LocalDateTime changedAt;
+    private Employee employee;
+
+}
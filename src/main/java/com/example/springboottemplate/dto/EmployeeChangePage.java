@@ -0,0 +1,20 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes that follow a sequence number, and the sequence number to ask the next changes from
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeChangePage {
+
+    private List<EmployeeChange> changes;
+    private long nextSince;
+
+}
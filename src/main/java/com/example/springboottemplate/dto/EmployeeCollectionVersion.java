@@ -0,0 +1,21 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Changes whenever an employee is created, updated or deleted, so that clients can tell whether the collection
+ * changed without reading it: an update or an insert moves lastUpdatedAt, a delete lowers count
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeCollectionVersion {
+
+    private Long count;
+    private LocalDateTime lastUpdatedAt;
+
+}
@@ -0,0 +1,21 @@
+package com.example.springboottemplate.dto;
+
+import com.example.springboottemplate.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Employees fetched by id, in the order of the requested ids, and the requested ids that matched no employee
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeMultiGetResult {
+
+    private List<Employee> employees;
+    private List<Integer> missingIds;
+
+}
@@ -0,0 +1,21 @@
+package com.example.springboottemplate.dto;
+
+import com.example.springboottemplate.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A slice of employees and the cursor to fetch the next one (null when there are no more employees)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeePage {
+
+    private List<Employee> employees;
+    private String nextCursor;
+
+}
@@ -0,0 +1,22 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A slice of employees restricted to the requested fields, and the cursor to fetch the next one
+ * (null when there are no more employees)
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeProjectionPage {
+
+    private List<Map<String, Object>> employees;
+    private String nextCursor;
+
+}
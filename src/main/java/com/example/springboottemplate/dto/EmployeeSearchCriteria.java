@@ -0,0 +1,31 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Filters and sort order of an employee search, bound from the query string. Unset filters match every employee.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EmployeeSearchCriteria {
+
+    private String designation;
+    private String lastNamePrefix;
+    private Integer minAge;
+    private Integer maxAge;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate joinedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate joinedTo;
+    /**
+     * Attribute to sort on, optionally followed by ",asc" or ",desc", e.g. "lastName,desc"
+     */
+    private String sort;
+
+}
@@ -0,0 +1,22 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of an import: how many employees were imported and rejected, and why the first rejected ones were.
+ * Unlike a bulk request, the imported employees are not listed, an import may hold millions of them.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ImportResult {
+
+    private long imported;
+    private long rejected;
+    private List<BatchItemResult> errors;
+
+}
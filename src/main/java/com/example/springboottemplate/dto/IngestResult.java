@@ -0,0 +1,20 @@
+package com.example.springboottemplate.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Where an employee accepted by the asynchronous ingestion endpoint stands, identified by its tracking id
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class IngestResult {
+
+    private String trackingId;
+    private IngestStatus status;
+    private Integer employeeId;
+    private String error;
+
+}
@@ -0,0 +1,10 @@
+package com.example.springboottemplate.dto;
+
+/**
+ * State of an employee accepted by the asynchronous ingestion endpoint
+ */
+public enum IngestStatus {
+    PENDING,
+    CREATED,
+    FAILED
+}
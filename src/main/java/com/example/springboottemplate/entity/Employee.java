@@ -1,22 +1,28 @@
 package com.example.springboottemplate.entity;
 
+import com.example.springboottemplate.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
- * An entity class represents a table in a relational database
+ * An entity class represents a table in a relational database.
+ * Cached in the second-level cache.
  */
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 @Entity
 @Table(name = "employee")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.EMPLOYEE_REGION)
 public class Employee {
 
     @Id
@@ -33,5 +39,7 @@ public class Employee {
     private LocalDate dateOfBirth;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    @Version
+    private Integer version;
 
 }
@@ -0,0 +1,17 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the changes that follow a sequence number were pruned from the change feed. The client has to read
+ * the whole employee collection again.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesExpiredException extends RuntimeException {
+
+    public ChangesExpiredException(long since) {
+        super("Changes since sequence " + since + " are no longer available, read all the employees again");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an operation targets an employee that does not exist
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class EmployeeNotFoundException extends RuntimeException {
+
+    public EmployeeNotFoundException(Integer id) {
+        super("Employee with id: " + id + " doesn't exist");
+    }
+
+}
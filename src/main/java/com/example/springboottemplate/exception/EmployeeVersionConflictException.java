@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an employee was modified by someone else since the version the client read
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmployeeVersionConflictException extends RuntimeException {
+
+    public EmployeeVersionConflictException(Integer id) {
+        super("Employee with id: " + id + " was modified concurrently, read it again and retry");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a tracking id was not issued by the asynchronous ingestion endpoint
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class IngestNotFoundException extends RuntimeException {
+
+    public IngestNotFoundException(String trackingId) {
+        super("Ingestion with tracking id: " + trackingId + " doesn't exist");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the asynchronous ingestion queue has no room left, the client should retry later
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(int capacity) {
+        super("The ingestion queue is full (" + capacity + " employees waiting to be written), retry later");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the rest of an import cannot be read, a truncated or malformed file. Nothing is imported.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidImportException extends RuntimeException {
+
+    public InvalidImportException(long index, Throwable cause) {
+        super("Import unreadable from employee " + index + ": " + cause.getMessage(), cause);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a page of changes is requested with a limit below 1
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidLimitException extends RuntimeException {
+
+    public InvalidLimitException(int limit) {
+        super("Invalid limit: " + limit + ", expected at least 1");
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a partial update sets a read-only field or an invalid value
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidPatchException extends RuntimeException {
+
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+
+}
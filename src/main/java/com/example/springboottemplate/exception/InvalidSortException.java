@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a search is sorted on an attribute that is not sortable, or in an unknown direction
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends RuntimeException {
+
+    public InvalidSortException(String sort) {
+        super("Invalid sort: " + sort);
+    }
+
+}
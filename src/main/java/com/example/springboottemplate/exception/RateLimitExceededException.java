@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a client sends requests faster than its rate limit, the Retry-After header tells when to retry
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String limit) {
+        super("Rate limit of " + limit + " exceeded, retry later");
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the service already has as many requests in progress as it can serve without queueing them,
+ * the Retry-After header tells when to retry
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(int limit) {
+        super("Too many requests in progress (" + limit + "), retry later");
+    }
+
+}
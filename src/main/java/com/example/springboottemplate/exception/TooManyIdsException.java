@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when more employees are requested by id at once than employee.multi-get.max-ids allows
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TooManyIdsException extends RuntimeException {
+
+    public TooManyIdsException(int count, int maxIds) {
+        super("Too many ids: " + count + ", at most " + maxIds + " per request");
+    }
+
+}
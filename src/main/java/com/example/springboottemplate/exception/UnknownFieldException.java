@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a client asks for an employee field that does not exist
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnknownFieldException extends RuntimeException {
+
+    public UnknownFieldException(String field) {
+        super("Unknown field: " + field);
+    }
+
+}
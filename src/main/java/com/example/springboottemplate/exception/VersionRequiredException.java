@@ -0,0 +1,16 @@
+package com.example.springboottemplate.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a conditional update comes without the version it applies to
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_REQUIRED)
+public class VersionRequiredException extends RuntimeException {
+
+    public VersionRequiredException(Integer id) {
+        super("Updating employee with id: " + id + " requires its version, in an If-Match header or a version field");
+    }
+
+}
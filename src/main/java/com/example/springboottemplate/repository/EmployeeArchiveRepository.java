@@ -0,0 +1,216 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive of the cold employees, in the employee_archive table: chunks of employees stored as gzipped JSON lines,
+ * and an entry per employee telling its chunk. Archived employees are read-only, a chunk is written once and only
+ * deleted when none of its employees is left.
+ * <p>
+ * Chunks have a mapper of their own rather than the one of the API, so that they stay readable whatever the API
+ * serializes, and properties added to or removed from Employee since a chunk was written are tolerated.
+ */
+@Repository
+public class EmployeeArchiveRepository {
+
+    private static final JsonMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final ObjectWriter WRITER = MAPPER.writerFor(Employee.class);
+
+    private static final ObjectReader READER = MAPPER.readerFor(Employee.class);
+
+    private static final String INSERT_ARCHIVE_SQL = "INSERT INTO employee_archive (employee_count, archived_at, employees) VALUES (?, ?, ?)";
+
+    private static final String INSERT_ENTRY_SQL = "INSERT INTO employee_archive_entry (employee_id, archive_id) VALUES (?, ?)";
+
+    private static final String RESTORE_SQL = "INSERT INTO employee (id, first_name, last_name, age, designation, "
+            + "phone_number, joined_on, address, date_of_birth, created_at, updated_at, version) OVERRIDING SYSTEM VALUE "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_EMPTY_ARCHIVES_SQL = "DELETE FROM employee_archive WHERE id IN (:archiveIds) "
+            + "AND NOT EXISTS (SELECT 1 FROM employee_archive_entry WHERE archive_id = employee_archive.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public EmployeeArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Archives the employees as one chunk, in the current transaction. They must be deleted from the employee table
+     * in the same transaction.
+     * @return id of the chunk
+     */
+    public long archive(List<Employee> employees, LocalDateTime archivedAt) {
+        byte[] chunk = compress(employees);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ARCHIVE_SQL, new String[]{"id"});
+            ps.setInt(1, employees.size());
+            ps.setObject(2, archivedAt);
+            ps.setBytes(3, chunk);
+            return ps;
+        }, keyHolder);
+        long archiveId = keyHolder.getKey().longValue();
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, employees, employees.size(), (ps, employee) -> {
+            ps.setInt(1, employee.getId());
+            ps.setLong(2, archiveId);
+        });
+        return archiveId;
+    }
+
+    public Optional<Employee> findById(Integer id) {
+        List<Employee> employees = findAllById(List.of(id));
+        return employees.isEmpty() ? Optional.empty() : Optional.of(employees.get(0));
+    }
+
+    /**
+     * Decompresses each chunk holding some of the employees once
+     * @return the archived employees among the given ids, in no particular order
+     */
+    public List<Employee> findAllById(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // A chunk may still hold employees deleted since, only those with an entry are read
+        Map<Long, Set<Integer>> idsByArchive = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT employee_id, archive_id FROM employee_archive_entry WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                (RowCallbackHandler) rs -> idsByArchive.computeIfAbsent(rs.getLong("archive_id"), archiveId -> new HashSet<>())
+                        .add(rs.getInt("employee_id")));
+        if (idsByArchive.isEmpty()) {
+            return List.of();
+        }
+        List<Employee> employees = new ArrayList<>();
+        namedParameterJdbcTemplate.query("SELECT id, employees FROM employee_archive WHERE id IN (:archiveIds)",
+                new MapSqlParameterSource("archiveIds", idsByArchive.keySet()),
+                (RowCallbackHandler) rs -> decompress(rs.getBytes("employees"), idsByArchive.get(rs.getLong("id")), employees));
+        return employees;
+    }
+
+    /**
+     * Forgets an archived employee, and its chunk once it holds no other one
+     * @return true when the employee was archived
+     */
+    public boolean deleteById(Integer id) {
+        return !deleteAllById(List.of(id)).isEmpty();
+    }
+
+    /**
+     * Forgets the archived employees among the given ids, and the chunks left without any employee
+     * @return ids of the employees that were archived
+     */
+    public Set<Integer> deleteAllById(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> archivedIds = new HashSet<>();
+        Set<Long> archiveIds = new HashSet<>();
+        namedParameterJdbcTemplate.query("SELECT employee_id, archive_id FROM employee_archive_entry WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                (RowCallbackHandler) rs -> {
+                    archivedIds.add(rs.getInt("employee_id"));
+                    archiveIds.add(rs.getLong("archive_id"));
+                });
+        if (archivedIds.isEmpty()) {
+            return archivedIds;
+        }
+        namedParameterJdbcTemplate.update("DELETE FROM employee_archive_entry WHERE employee_id IN (:ids)",
+                new MapSqlParameterSource("ids", archivedIds));
+        namedParameterJdbcTemplate.update(DELETE_EMPTY_ARCHIVES_SQL, new MapSqlParameterSource("archiveIds", archiveIds));
+        return archivedIds;
+    }
+
+    /**
+     * Moves the archived employee back to the employee table, with its id and version, in the current transaction.
+     * The restored row is written with JDBC: the caller updates it through Hibernate in the same transaction, which
+     * invalidates the cached query results.
+     * @return false when the employee is not archived, or was restored by a concurrent transaction
+     */
+    public boolean restore(Integer id) {
+        List<Long> archiveIds = jdbcTemplate.queryForList("SELECT archive_id FROM employee_archive_entry WHERE employee_id = ?",
+                Long.class, id);
+        Optional<Employee> archived = findById(id);
+        // Of concurrent restores, only the one that deletes the entry inserts the row
+        if (archived.isEmpty() || jdbcTemplate.update("DELETE FROM employee_archive_entry WHERE employee_id = ?", id) == 0) {
+            return false;
+        }
+        namedParameterJdbcTemplate.update(DELETE_EMPTY_ARCHIVES_SQL, new MapSqlParameterSource("archiveIds", archiveIds));
+        Employee employee = archived.get();
+        jdbcTemplate.update(RESTORE_SQL, employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getAge(), employee.getDesignation(), employee.getPhoneNumber(), employee.getJoinedOn(),
+                employee.getAddress(), employee.getDateOfBirth(), employee.getCreatedAt(), employee.getUpdatedAt(),
+                employee.getVersion() != null ? employee.getVersion() : 0);
+        return true;
+    }
+
+    private static byte[] compress(List<Employee> employees) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            for (Employee employee : employees) {
+                writer.write(WRITER.writeValueAsString(employee));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Adds the employees of the chunk whose id is wanted
+     */
+    private static void decompress(byte[] chunk, Set<Integer> wanted, List<Employee> employees) {
+        try (MappingIterator<Employee> iterator = READER.readValues(new GZIPInputStream(new ByteArrayInputStream(chunk)))) {
+            while (iterator.hasNext()) {
+                Employee employee = iterator.next();
+                if (wanted.contains(employee.getId())) {
+                    employees.add(employee);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bulk operations on the employee table: writes go through JDBC batching instead of the persistence context, reads
+ * of many ids through Hibernate's multi-load
+ */
+public interface EmployeeBatchRepository {
+
+    /**
+     * Inserts the employees in a single JDBC batch and sets their generated ids
+     * @return update count of each insert
+     */
+    int[] insertAllInBatch(List<Employee> employees);
+
+    /**
+     * Updates the employees, matched by id, in a single JDBC batch. The created_at column is left untouched
+     * and the version is incremented, whatever the version of the given employees.
+     * @return update count of each update, 0 when there is no employee with that id
+     */
+    int[] updateAllInBatch(List<Employee> employees);
+
+    /**
+     * Deletes the employees with the given ids in a single JDBC batch, and forgets the archived ones among the others
+     * @return update count of each delete, 0 when there is no employee with that id, archived or not
+     */
+    int[] deleteAllInBatch(List<Integer> ids);
+
+    /**
+     * Inserts the employees as they are read from the iterator, with a COPY on PostgreSQL, in JDBC batches of
+     * chunkSize employees on other databases. Must run in a transaction, the import is all or nothing.
+     * The generated ids are not set on the employees.
+     * @return number of employees inserted
+     */
+    long importAll(Iterator<Employee> employees, int chunkSize);
+
+    /**
+     * Reads the employees with the given ids, from the persistence context and the second-level cache when they are
+     * there, the others with one WHERE id IN (...) query per chunk of chunkSize ids
+     * @return the employees in the order of the ids, null for the ids that do not exist
+     */
+    List<Employee> findAllByIdInChunks(List<Integer> ids, int chunkSize);
+}
@@ -0,0 +1,333 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.entity.Employee;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC implementation of {@link EmployeeBatchRepository}, picked up by Spring Data as a repository fragment.
+ * Hibernate does not see these statements, so each batch evicts the cached query results and the updated and deleted
+ * employees from the second-level cache: right away, for the rest of the transaction, and again once it commits, so
+ * that nothing read concurrently from the old rows stays cached.
+ * Each batch also records its changes in the outbox of the change feed, in the same transaction.
+ * <p>
+ * Imports on PostgreSQL are streamed with COPY into a temporary table, then moved to the employee table with a single
+ * INSERT that also fills the outbox with the generated ids.
+ */
+class EmployeeBatchRepositoryImpl implements EmployeeBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO employee (first_name, last_name, age, designation, phone_number, "
+            + "joined_on, address, date_of_birth, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE employee SET first_name = ?, last_name = ?, age = ?, designation = ?, "
+            + "phone_number = ?, joined_on = ?, address = ?, date_of_birth = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM employee WHERE id = ?";
+
+    private static final String IMPORT_COLUMNS = "first_name, last_name, age, designation, phone_number, joined_on, address, "
+            + "date_of_birth, created_at, updated_at";
+
+    private static final String CREATE_IMPORT_TABLE_SQL = "CREATE TEMPORARY TABLE employee_import ON COMMIT DROP AS SELECT "
+            + IMPORT_COLUMNS + " FROM employee WITH NO DATA";
+
+    private static final String COPY_SQL = "COPY employee_import (" + IMPORT_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MOVE_IMPORT_SQL = "WITH imported AS (INSERT INTO employee (" + IMPORT_COLUMNS + ") SELECT "
+            + IMPORT_COLUMNS + " FROM employee_import RETURNING id) INSERT INTO employee_change_staging (employee_id, "
+            + "operation, changed_at) SELECT id, '" + ChangeOperation.CREATED.name() + "', ? FROM imported";
+
+    /**
+     * Rows are sent to the COPY in blocks of about this many characters
+     */
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+
+    EmployeeBatchRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                EmployeeChangeRepository employeeChangeRepository,
+                                EmployeeArchiveRepository employeeArchiveRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.employeeArchiveRepository = employeeArchiveRepository;
+    }
+
+    @Override
+    public int[] insertAllInBatch(List<Employee> employees) {
+        int[] updateCounts = insert(employees);
+        invalidateSecondLevelCache(List.of());
+        return updateCounts;
+    }
+
+    @Override
+    public long importAll(Iterator<Employee> employees, int chunkSize) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                connection.isWrapperFor(PGConnection.class) ? copy(connection, employees) : null);
+        long imported = copied != null ? copied : insertInChunks(employees, chunkSize);
+        invalidateSecondLevelCache(List.of());
+        return imported;
+    }
+
+    private long copy(Connection connection, Iterator<Employee> employees) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_IMPORT_TABLE_SQL);
+        }
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 4096);
+            while (employees.hasNext()) {
+                appendCsvRow(rows, employees.next());
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, rows);
+                }
+            }
+            writeToCopy(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(MOVE_IMPORT_SQL)) {
+            ps.setObject(1, LocalDateTime.now());
+            return ps.executeUpdate();
+        }
+    }
+
+    private long insertInChunks(Iterator<Employee> employees, int chunkSize) {
+        long imported = 0;
+        List<Employee> chunk = new ArrayList<>(chunkSize);
+        while (employees.hasNext()) {
+            chunk.add(employees.next());
+            if (chunk.size() >= chunkSize || !employees.hasNext()) {
+                insert(chunk);
+                imported += chunk.size();
+                chunk.clear();
+            }
+        }
+        return imported;
+    }
+
+    private int[] insert(List<Employee> employees) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int[] updateCounts = jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Employee employee = employees.get(i);
+                        setColumns(ps, employee);
+                        ps.setObject(9, employee.getCreatedAt());
+                        ps.setObject(10, employee.getUpdatedAt());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return employees.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < employees.size(); i++) {
+            employees.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        employeeChangeRepository.insertAllInBatch(employees.stream().map(Employee::getId).toList(),
+                ChangeOperation.CREATED, LocalDateTime.now());
+        return updateCounts;
+    }
+
+    @Override
+    public int[] updateAllInBatch(List<Employee> employees) {
+        int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Employee employee = employees.get(i);
+                setColumns(ps, employee);
+                ps.setObject(9, employee.getUpdatedAt());
+                ps.setInt(10, employee.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return employees.size();
+            }
+        });
+        invalidateSecondLevelCache(employees.stream().map(Employee::getId).toList());
+        employeeChangeRepository.insertAllInBatch(changed(employees.stream().map(Employee::getId).toList(), updateCounts),
+                ChangeOperation.UPDATED, LocalDateTime.now());
+        return updateCounts;
+    }
+
+    @Override
+    public int[] deleteAllInBatch(List<Integer> ids) {
+        int[] updateCounts = jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, ids.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ids.size();
+            }
+        });
+        // The ids not in the employee table may be archived employees, forgotten like EmployeeService does
+        List<Integer> notInTable = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updateCounts[i] == 0) {
+                notInTable.add(ids.get(i));
+            }
+        }
+        Set<Integer> archivedIds = employeeArchiveRepository.deleteAllById(notInTable);
+        for (int i = 0; i < ids.size(); i++) {
+            if (archivedIds.contains(ids.get(i))) {
+                updateCounts[i] = 1;
+            }
+        }
+        invalidateSecondLevelCache(ids);
+        employeeChangeRepository.insertAllInBatch(changed(ids, updateCounts), ChangeOperation.DELETED, LocalDateTime.now());
+        return updateCounts;
+    }
+
+    @Override
+    public List<Employee> findAllByIdInChunks(List<Integer> ids, int chunkSize) {
+        return entityManager.unwrap(Session.class).byMultipleIds(Employee.class)
+                .withBatchSize(chunkSize)
+                .multiLoad(ids);
+    }
+
+    /**
+     * @return the ids whose statement changed a row
+     */
+    private static List<Integer> changed(List<Integer> ids, int[] updateCounts) {
+        List<Integer> changed = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (updateCounts[i] != 0) {
+                changed.add(ids.get(i));
+            }
+        }
+        return changed;
+    }
+
+    private void invalidateSecondLevelCache(List<Integer> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        Runnable evict = () -> {
+            ids.forEach(id -> cache.evictEntityData(Employee.class, id));
+            cache.evictQueryRegions();
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    /**
+     * Appends the IMPORT_COLUMNS of the employee as a line of the CSV format of COPY, where an unquoted empty value
+     * is NULL and a quoted one is an empty string
+     */
+    private static void appendCsvRow(StringBuilder rows, Employee employee) {
+        appendCsvValue(rows, employee.getFirstName()).append(',');
+        appendCsvValue(rows, employee.getLastName()).append(',');
+        appendCsvValue(rows, employee.getAge()).append(',');
+        appendCsvValue(rows, employee.getDesignation()).append(',');
+        appendCsvValue(rows, employee.getPhoneNumber()).append(',');
+        appendCsvValue(rows, employee.getJoinedOn()).append(',');
+        appendCsvValue(rows, employee.getAddress()).append(',');
+        appendCsvValue(rows, employee.getDateOfBirth()).append(',');
+        appendCsvValue(rows, employee.getCreatedAt()).append(',');
+        appendCsvValue(rows, employee.getUpdatedAt()).append('\n');
+    }
+
+    private static StringBuilder appendCsvValue(StringBuilder rows, Object value) {
+        if (value == null) {
+            return rows;
+        }
+        String text = value.toString();
+        if (!needsQuotes(text)) {
+            return rows.append(text);
+        }
+        rows.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+
+    /**
+     * @return true for empty strings, which would be NULL otherwise, and for values with separators, quotes, line
+     * breaks or backslashes, so that none is read as the \. end-of-data marker
+     */
+    private static boolean needsQuotes(String text) {
+        if (text.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binds the first eight columns, shared by the insert and the update statements
+     */
+    private static void setColumns(PreparedStatement ps, Employee employee) throws SQLException {
+        ps.setString(1, employee.getFirstName());
+        ps.setString(2, employee.getLastName());
+        ps.setObject(3, employee.getAge(), Types.INTEGER);
+        ps.setString(4, employee.getDesignation());
+        ps.setString(5, employee.getPhoneNumber());
+        ps.setObject(6, employee.getJoinedOn(), Types.DATE);
+        ps.setString(7, employee.getAddress());
+        ps.setObject(8, employee.getDateOfBirth(), Types.DATE);
+    }
+}
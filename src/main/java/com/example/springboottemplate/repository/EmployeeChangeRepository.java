@@ -0,0 +1,112 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Outbox of the employee changes. Rows are staged in the employee_change_staging table with the JDBC connection of the
+ * current transaction, so they are committed, or rolled back, together with the change itself. The relay then moves
+ * the committed ones to the employee_change table, where they get their sequence number.
+ */
+@Repository
+public class EmployeeChangeRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO employee_change_staging (employee_id, operation, changed_at) VALUES (?, ?, ?)";
+
+    private static final String RELAY_SQL = "INSERT INTO employee_change (employee_id, operation, changed_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public EmployeeChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Stages the same operation on each of the employees, in a single JDBC batch
+     */
+    public void insertAllInBatch(List<Integer> employeeIds, ChangeOperation operation, LocalDateTime changedAt) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, employeeIds, employeeIds.size(), (ps, employeeId) -> {
+            ps.setInt(1, employeeId);
+            ps.setString(2, operation.name());
+            ps.setObject(3, changedAt);
+        });
+    }
+
+    /**
+     * Moves up to limit committed changes from the staging table to employee_change, in the current transaction.
+     * The transaction holds the lock row of employee_change_relay until it completes, so relays run one at a time and
+     * their sequence numbers become visible in the order they were allocated.
+     * @return number of changes moved
+     */
+    public int relay(int limit) {
+        jdbcTemplate.queryForObject("SELECT id FROM employee_change_relay WHERE id = 1 FOR UPDATE", Integer.class);
+        List<Long> stagedIds = new ArrayList<>();
+        List<EmployeeChange> changes = jdbcTemplate.query("SELECT id, employee_id, operation, changed_at "
+                        + "FROM employee_change_staging ORDER BY id FETCH FIRST ? ROWS ONLY",
+                (rs, rowNum) -> {
+                    stagedIds.add(rs.getLong("id"));
+                    return new EmployeeChange(0, rs.getInt("employee_id"), ChangeOperation.valueOf(rs.getString("operation")),
+                            rs.getObject("changed_at", LocalDateTime.class), null);
+                },
+                limit);
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(RELAY_SQL, changes, changes.size(), (ps, change) -> {
+            ps.setInt(1, change.getEmployeeId());
+            ps.setString(2, change.getOperation().name());
+            ps.setObject(3, change.getChangedAt());
+        });
+        namedParameterJdbcTemplate.update("DELETE FROM employee_change_staging WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", stagedIds));
+        return changes.size();
+    }
+
+    /**
+     * @return the changes that follow the given sequence number, in sequence order, without their employee
+     */
+    public List<EmployeeChange> findSince(long sequence, int limit) {
+        return jdbcTemplate.query("SELECT sequence, employee_id, operation, changed_at FROM employee_change "
+                        + "WHERE sequence > ? ORDER BY sequence FETCH FIRST ? ROWS ONLY",
+                (rs, rowNum) -> new EmployeeChange(rs.getLong("sequence"), rs.getInt("employee_id"),
+                        ChangeOperation.valueOf(rs.getString("operation")), rs.getObject("changed_at", LocalDateTime.class), null),
+                sequence, limit);
+    }
+
+    /**
+     * @return the lowest sequence number still in the table, empty when there are no changes
+     */
+    public OptionalLong findFirstSequence() {
+        Long sequence = jdbcTemplate.queryForObject("SELECT min(sequence) FROM employee_change", Long.class);
+        return sequence == null ? OptionalLong.empty() : OptionalLong.of(sequence);
+    }
+
+    /**
+     * @return the highest sequence number in the table, empty when there are no changes
+     */
+    public OptionalLong findLastSequence() {
+        Long sequence = jdbcTemplate.queryForObject("SELECT max(sequence) FROM employee_change", Long.class);
+        return sequence == null ? OptionalLong.empty() : OptionalLong.of(sequence);
+    }
+
+    /**
+     * Deletes the changes made before the given time, except the last one, which tells how far the feed went
+     * @return number of changes deleted
+     */
+    public int deleteChangedBefore(LocalDateTime changedAt) {
+        return jdbcTemplate.update("DELETE FROM employee_change WHERE changed_at < ? "
+                + "AND sequence < (SELECT max(sequence) FROM employee_change)", changedAt);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.dto.IngestResult;
+import com.example.springboottemplate.dto.IngestStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Outcomes of the asynchronous ingestion, in the employee_ingest table, used by the ingestion mode only
+ */
+@Repository
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO employee_ingest (tracking_id, status, employee_id, error, processed_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public EmployeeIngestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Inserts the outcomes in a single JDBC batch
+     */
+    public void insertAllInBatch(List<IngestResult> results, LocalDateTime processedAt) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, results, results.size(), (ps, result) -> {
+            ps.setString(1, result.getTrackingId());
+            ps.setString(2, result.getStatus().name());
+            ps.setObject(3, result.getEmployeeId(), Types.INTEGER);
+            ps.setString(4, result.getError());
+            ps.setObject(5, processedAt);
+        });
+    }
+
+    public Optional<IngestResult> findById(String trackingId) {
+        return jdbcTemplate.query("SELECT tracking_id, status, employee_id, error FROM employee_ingest WHERE tracking_id = ?",
+                (rs, rowNum) -> new IngestResult(rs.getString("tracking_id"), IngestStatus.valueOf(rs.getString("status")),
+                        rs.getObject("employee_id", Integer.class), rs.getString("error")),
+                trackingId).stream().findFirst();
+    }
+
+    /**
+     * @return the given tracking ids that already have an outcome
+     */
+    public Set<String> findExistingIds(Collection<String> trackingIds) {
+        if (trackingIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT tracking_id FROM employee_ingest WHERE tracking_id IN (:ids)", Map.of("ids", trackingIds), String.class));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springboottemplate.repository;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Partial, version-checked updates that go straight to the database instead of through the persistence context
+ */
+public interface EmployeePatchRepository {
+
+    /**
+     * Sets the given attributes and updated_at, and increments the version, in a single
+     * UPDATE ... WHERE id = ? AND version = ? statement. Must run in a transaction.
+     * @param values - new value of each attribute, by attribute name
+     * @return 1 when updated, 0 when there is no employee with that id or its version is not the given one
+     */
+    int updateAttributes(Integer id, Integer version, Map<String, Object> values, LocalDateTime updatedAt);
+}
@@ -0,0 +1,37 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+class EmployeePatchRepositoryImpl implements EmployeePatchRepository {
+
+    private final EntityManager entityManager;
+
+    EmployeePatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int updateAttributes(Integer id, Integer version, Map<String, Object> values, LocalDateTime updatedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = cb.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+
+        values.forEach((attribute, value) -> update.set(root.get(attribute), value));
+        update.set(root.<LocalDateTime>get("updatedAt"), updatedAt);
+        update.set(root.<Integer>get("version"), cb.sum(root.get("version"), 1));
+        update.where(cb.equal(root.get("id"), id), cb.equal(root.get("version"), version));
+
+        int updated = entityManager.createQuery(update).executeUpdate();
+        // Hibernate evicts the second-level cache of every employee once the transaction completes, this one is
+        // evicted now so that the rest of the transaction reads the new values
+        entityManager.getEntityManagerFactory().getCache().evict(Employee.class, id);
+        return updated;
+    }
+}
@@ -1,10 +1,65 @@
 package com.example.springboottemplate.repository;
 
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
 import com.example.springboottemplate.entity.Employee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository is an interface that provides access to data in a database
  */
-public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, JpaSpecificationExecutor<Employee>,
+        EmployeeBatchRepository, EmployeeSearchRepository, EmployeePatchRepository {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long count();
+
+    /**
+     * Keyset pagination: fetches the next slice of employees after the given id, ordered by id.
+     * Uses the primary key index, so the cost does not grow with the position in the table.
+     * Served from the query cache until an employee is written. Only bounded queries are cacheable: a cached result
+     * holds the ids only, an unbounded one would hold the whole table in a single entry and be read back with one
+     * select per employee no longer in the second-level cache.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Integer id, Limit limit);
+
+    /**
+     * Streams all employees ordered by id, fetching rows from the database in chunks.
+     * Must be consumed inside a transaction and closed after use. The rows are not put in the second-level cache,
+     * a full scan would evict the employees that are actually read often.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    /**
+     * Cold employees, not updated since the given time, oldest ids first, found with the updated_at index. Locked until
+     * the end of the transaction, so that an employee is not updated while it is being archived, nor archived twice.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    List<Employee> findByUpdatedAtBeforeOrderByIdAsc(LocalDateTime updatedBefore, Limit limit);
+
+    /**
+     * Count and last update of the employee table, answered from the primary key and updated_at indexes
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new com.example.springboottemplate.dto.EmployeeCollectionVersion(count(e), max(e.updatedAt)) from Employee e")
+    EmployeeCollectionVersion findCollectionVersion();
 }
@@ -0,0 +1,34 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filtered, sorted search over employees with keyset pagination
+ */
+public interface EmployeeSearchRepository {
+
+    /**
+     * Finds the employees matching the filter, ordered by the sort field then by id, that come after the given keyset.
+     * Nulls are ordered after every value: last in ascending order, first in descending order.
+     * @param afterId - id of the last employee of the previous page, or null for the first page
+     * @param afterValue - sort field value of the last employee of the previous page, ignored when sorting by id
+     * @param limit - maximum number of employees returned
+     */
+    List<Employee> search(Specification<Employee> filter, EmployeeSortField sortField, Sort.Direction direction,
+                          Object afterValue, Integer afterId, Limit limit);
+
+    /**
+     * Same as search, but only the given attributes are selected and each employee is returned as a map of
+     * attribute name to value, in the order of the attributes. No entity is instantiated nor managed.
+     */
+    List<Map<String, Object>> searchAttributes(Specification<Employee> filter, EmployeeSortField sortField,
+                                               Sort.Direction direction, Object afterValue, Integer afterId, Limit limit,
+                                               Collection<String> attributes);
+}
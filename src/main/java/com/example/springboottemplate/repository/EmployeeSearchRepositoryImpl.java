@@ -0,0 +1,117 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+    private final EntityManager entityManager;
+
+    EmployeeSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Employee> search(Specification<Employee> filter, EmployeeSortField sortField, Sort.Direction direction,
+                                 Object afterValue, Integer afterId, Limit limit) {
+        CriteriaQuery<Employee> query = criteriaBuilder().createQuery(Employee.class);
+        Root<Employee> root = query.from(Employee.class);
+        query.select(root);
+        return getResultList(query, root, filter, sortField, direction, afterValue, afterId, limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> searchAttributes(Specification<Employee> filter, EmployeeSortField sortField,
+                                                      Sort.Direction direction, Object afterValue, Integer afterId,
+                                                      Limit limit, Collection<String> attributes) {
+        CriteriaQuery<Tuple> query = criteriaBuilder().createTupleQuery();
+        Root<Employee> root = query.from(Employee.class);
+        query.multiselect(attributes.stream().<Selection<?>>map(attribute -> root.get(attribute).alias(attribute)).toList());
+
+        return getResultList(query, root, filter, sortField, direction, afterValue, afterId, limit).stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    tuple.getElements().forEach(element -> values.put(element.getAlias(), tuple.get(element)));
+                    return values;
+                })
+                .toList();
+    }
+
+    // Hibernate's builder, for the explicit null ordering that the keyset predicate relies on
+    private HibernateCriteriaBuilder criteriaBuilder() {
+        return (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+    }
+
+    private <T> List<T> getResultList(CriteriaQuery<T> query, Root<Employee> root, Specification<Employee> filter,
+                                      EmployeeSortField sortField, Sort.Direction direction, Object afterValue,
+                                      Integer afterId, Limit limit) {
+        HibernateCriteriaBuilder cb = criteriaBuilder();
+        boolean ascending = direction.isAscending();
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = filter.toPredicate(root, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+        if (afterId != null) {
+            predicates.add(after(cb, root, sortField, ascending, afterValue, afterId));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        if (sortField != EmployeeSortField.ID) {
+            Path<?> path = root.get(sortField.getAttribute());
+            // Same null ordering as a PostgreSQL B-tree index, so both directions are plain index scans
+            orders.add(ascending ? cb.asc(path, false) : cb.desc(path, true));
+        }
+        orders.add(ascending ? cb.asc(root.get("id")) : cb.desc(root.get("id")));
+
+        query.where(predicates.toArray(Predicate[]::new)).orderBy(orders);
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        // Only bounded results go to the query cache, see EmployeeRepository.findByIdGreaterThanOrderByIdAsc
+        if (limit.isLimited()) {
+            typedQuery.setHint(HibernateHints.HINT_CACHEABLE, true);
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(HibernateCriteriaBuilder cb, Root<Employee> root, EmployeeSortField sortField,
+                                   boolean ascending, Object afterValue, Integer afterId) {
+        Path<Integer> id = root.get("id");
+        Predicate idAfter = ascending ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+        if (sortField == EmployeeSortField.ID) {
+            return idAfter;
+        }
+
+        Path<Comparable> path = root.get(sortField.getAttribute());
+        if (afterValue == null) {
+            // The previous page ended among the nulls: last in ascending order, first in descending order
+            Predicate nullsAfter = cb.and(cb.isNull(path), idAfter);
+            return ascending ? nullsAfter : cb.or(nullsAfter, cb.isNotNull(path));
+        }
+        Comparable value = (Comparable) afterValue;
+        Predicate valueAfter = ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+        Predicate tieAfter = cb.and(cb.equal(path, value), idAfter);
+        return ascending ? cb.or(valueAfter, tieAfter, cb.isNull(path)) : cb.or(valueAfter, tieAfter);
+    }
+}
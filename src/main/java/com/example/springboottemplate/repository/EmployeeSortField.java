@@ -0,0 +1,55 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Employee attributes a search can be sorted on. Each of them is indexed together with id, see V3__Add_Employee_Search_Indexes.sql
+ */
+public enum EmployeeSortField {
+
+    ID("id"),
+    LAST_NAME("lastName"),
+    AGE("age"),
+    JOINED_ON("joinedOn");
+
+    private final String attribute;
+
+    EmployeeSortField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public static Optional<EmployeeSortField> fromAttribute(String attribute) {
+        return Arrays.stream(values()).filter(field -> field.attribute.equals(attribute)).findFirst();
+    }
+
+    /**
+     * @return the value of this attribute for the given employee, possibly null
+     */
+    public Object valueOf(Employee employee) {
+        return switch (this) {
+            case ID -> employee.getId();
+            case LAST_NAME -> employee.getLastName();
+            case AGE -> employee.getAge();
+            case JOINED_ON -> employee.getJoinedOn();
+        };
+    }
+
+    /**
+     * Reverse of String.valueOf(valueOf(employee))
+     */
+    public Object parse(String value) {
+        return switch (this) {
+            case ID, AGE -> Integer.valueOf(value);
+            case LAST_NAME -> value;
+            case JOINED_ON -> LocalDate.parse(value);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.entity.Employee;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Search filters on employees. A filter whose arguments are all null matches every employee.
+ */
+public final class EmployeeSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> hasDesignation(String designation) {
+        return (root, query, cb) -> designation == null ? null : cb.equal(root.get("designation"), designation);
+    }
+
+    /**
+     * Case-insensitive prefix match, written as lower(last_name) LIKE 'prefix%' so that it can use an index on lower(last_name)
+     */
+    public static Specification<Employee> lastNameStartsWith(String prefix) {
+        return (root, query, cb) -> prefix == null || prefix.isEmpty() ? null
+                : cb.like(cb.lower(root.get("lastName")), escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE);
+    }
+
+    /**
+     * Both bounds are inclusive
+     */
+    public static Specification<Employee> ageBetween(Integer minAge, Integer maxAge) {
+        return (root, query, cb) -> {
+            if (minAge != null && maxAge != null) {
+                return cb.between(root.get("age"), minAge, maxAge);
+            }
+            if (minAge != null) {
+                return cb.greaterThanOrEqualTo(root.get("age"), minAge);
+            }
+            return maxAge == null ? null : cb.lessThanOrEqualTo(root.get("age"), maxAge);
+        };
+    }
+
+    /**
+     * Both bounds are inclusive
+     */
+    public static Specification<Employee> joinedBetween(LocalDate from, LocalDate to) {
+        return (root, query, cb) -> {
+            if (from != null && to != null) {
+                return cb.between(root.get("joinedOn"), from, to);
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(root.get("joinedOn"), from);
+            }
+            return to == null ? null : cb.lessThanOrEqualTo(root.get("joinedOn"), to);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.springboottemplate.repository;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.entity.Employee;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking access to the employee table through R2DBC, used by the reactive profile
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveEmployeeRepository {
+
+    private static final String COLUMNS = "id, first_name, last_name, age, designation, phone_number, joined_on, address, "
+            + "date_of_birth, created_at, updated_at, version";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveEmployeeRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Emits the employees ordered by id as rows arrive; the driver only fetches more rows when there is demand
+     */
+    public Flux<Employee> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM employee ORDER BY id")
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .all();
+    }
+
+    public Mono<Employee> findById(Integer id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM employee WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveEmployeeRepository::toEmployee)
+                .one();
+    }
+
+    /**
+     * Inserts the employee and emits it with its generated id
+     */
+    public Mono<Employee> insert(Employee employee) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO employee (first_name, last_name, age, "
+                + "designation, phone_number, joined_on, address, date_of_birth, created_at, updated_at) VALUES (:firstName, "
+                + ":lastName, :age, :designation, :phoneNumber, :joinedOn, :address, :dateOfBirth, :createdAt, :updatedAt)");
+        return bindColumns(spec, employee)
+                .bind("createdAt", employee.getCreatedAt())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .map(id -> {
+                    employee.setId(id);
+                    // Default of the version column
+                    employee.setVersion(0);
+                    return employee;
+                });
+    }
+
+    /**
+     * Updates the employee with the same id, leaving created_at untouched and incrementing the version. When the
+     * employee carries a version, only if it is still the current one.
+     * @return number of updated rows, 0 when there is no employee with that id, or not at that version
+     */
+    public Mono<Long> update(Employee employee) {
+        String sql = "UPDATE employee SET first_name = :firstName, last_name = :lastName, age = :age, "
+                + "designation = :designation, phone_number = :phoneNumber, joined_on = :joinedOn, address = :address, "
+                + "date_of_birth = :dateOfBirth, updated_at = :updatedAt, version = version + 1 WHERE id = :id";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(employee.getVersion() == null ? sql
+                : sql + " AND version = :version");
+        spec = bindColumns(spec, employee).bind("id", employee.getId());
+        if (employee.getVersion() != null) {
+            spec = spec.bind("version", employee.getVersion());
+        }
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(Integer id) {
+        return databaseClient.sql("DELETE FROM employee WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindColumns(DatabaseClient.GenericExecuteSpec spec, Employee employee) {
+        spec = bind(spec, "firstName", employee.getFirstName(), String.class);
+        spec = bind(spec, "lastName", employee.getLastName(), String.class);
+        spec = bind(spec, "age", employee.getAge(), Integer.class);
+        spec = bind(spec, "designation", employee.getDesignation(), String.class);
+        spec = bind(spec, "phoneNumber", employee.getPhoneNumber(), String.class);
+        spec = bind(spec, "joinedOn", employee.getJoinedOn(), LocalDate.class);
+        spec = bind(spec, "address", employee.getAddress(), String.class);
+        spec = bind(spec, "dateOfBirth", employee.getDateOfBirth(), LocalDate.class);
+        return bind(spec, "updatedAt", employee.getUpdatedAt(), LocalDateTime.class);
+    }
+
+    /**
+     * Stages the change in the outbox of the change feed, see EmployeeChangeRepository, in the current transaction
+     */
+    public Mono<Void> insertChange(Integer employeeId, ChangeOperation operation, LocalDateTime changedAt) {
+        return databaseClient.sql("INSERT INTO employee_change_staging (employee_id, operation, changed_at) "
+                        + "VALUES (:employeeId, :operation, :changedAt)")
+                .bind("employeeId", employeeId)
+                .bind("operation", operation.name())
+                .bind("changedAt", changedAt)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name, T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Employee toEmployee(Readable row) {
+        return new Employee(
+                row.get("id", Integer.class),
+                row.get("first_name", String.class),
+                row.get("last_name", String.class),
+                row.get("age", Integer.class),
+                row.get("designation", String.class),
+                row.get("phone_number", String.class),
+                row.get("joined_on", LocalDate.class),
+                row.get("address", String.class),
+                row.get("date_of_birth", LocalDate.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("updated_at", LocalDateTime.class),
+                row.get("version", Integer.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the cold employees, not updated for cold-after, from the employee table to the compressed archive, so that
+ * the table only holds the employees in use. Each chunk of chunk-size employees is archived and deleted in a
+ * transaction of its own, so that the job holds locks briefly and resumes where it stopped.
+ * <p>
+ * Archived employees are still read by id, see EmployeeService.getEmployeeById, but no longer listed or searched. An
+ * update restores them to the employee table first. Archiving is not a change of the employee, it is not recorded in
+ * the change feed.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "employee.archive.enabled", havingValue = "true")
+public class EmployeeArchiveService implements SmartLifecycle {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archived;
+
+    @Value("${employee.archive.cold-after:1825d}")
+    private Duration coldAfter;
+
+    @Value("${employee.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${employee.archive.interval:1h}")
+    private Duration interval;
+
+    private ScheduledExecutorService scheduler;
+
+    public EmployeeArchiveService(EmployeeRepository employeeRepository, EmployeeArchiveRepository employeeArchiveRepository,
+                                  TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.employeeArchiveRepository = employeeArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.archived = Counter.builder("employee.archive.archived")
+                .description("Employees moved to the archive")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveColdEmployees, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Archives the employees not updated for cold-after, chunk by chunk
+     * @return number of employees archived
+     */
+    public long archiveColdEmployees() {
+        LocalDateTime updatedBefore = LocalDateTime.now().minus(coldAfter);
+        long total = 0;
+        try {
+            int chunk;
+            do {
+                chunk = transactionTemplate.execute(status -> archiveChunk(updatedBefore));
+                total += chunk;
+            } while (chunk == chunkSize && !Thread.currentThread().isInterrupted());
+        } catch (DataAccessException e) {
+            log.warn("Could not archive the employees not updated since {}, retrying in {}", updatedBefore, interval, e);
+        }
+        if (total > 0) {
+            log.info("Archived {} employees not updated since {}", total, updatedBefore);
+        }
+        return total;
+    }
+
+    private int archiveChunk(LocalDateTime updatedBefore) {
+        List<Employee> employees = employeeRepository.findByUpdatedAtBeforeOrderByIdAsc(updatedBefore, Limit.of(chunkSize));
+        if (employees.isEmpty()) {
+            return 0;
+        }
+        employeeArchiveRepository.archive(employees, LocalDateTime.now());
+        employeeRepository.deleteAllByIdInBatch(employees.stream().map(Employee::getId).toList());
+        archived.increment(employees.size());
+        return employees.size();
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.BatchItemResult;
+import com.example.springboottemplate.dto.BatchItemStatus;
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates, updates and deletes employees in bulk. Items are validated one by one, then written in chunks,
+ * each chunk being a single JDBC batch in its own transaction. When a chunk fails, its items are retried
+ * one at a time so that only the offending items are reported as failed.
+ * <p>
+ * The outcome of every item is kept for the response, so a request is cut at max-items: the items that follow are not
+ * read, and reported as a single failed item. Larger sets of employees go through the import.
+ */
+@Service
+@Slf4j
+@Timed("employee.service")
+public class EmployeeBatchService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final CacheManager cacheManager;
+
+    @Value("${employee.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${employee.batch.max-items:10000}")
+    private int maxItems;
+
+    public EmployeeBatchService(EmployeeRepository employeeRepository, EmployeeArchiveRepository employeeArchiveRepository,
+                                TransactionTemplate transactionTemplate, Validator validator, CacheManager cacheManager) {
+        this.employeeRepository = employeeRepository;
+        this.employeeArchiveRepository = employeeArchiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+    }
+
+    public BatchResult createEmployees(Iterator<Employee> employees) {
+        return process(employees, this::validateForCreate, this::insertChunk, Employee::getId, BatchItemStatus.CREATED);
+    }
+
+    public BatchResult updateEmployees(Iterator<Employee> employees) {
+        return process(employees, this::validateForUpdate, this::updateChunk, Employee::getId, BatchItemStatus.UPDATED);
+    }
+
+    public BatchResult deleteEmployeesById(Iterator<Integer> ids) {
+        return process(ids, id -> id == null ? "id must not be null" : null, employeeRepository::deleteAllInBatch,
+                Function.identity(), BatchItemStatus.DELETED);
+    }
+
+    private int[] insertChunk(List<Employee> employees) {
+        LocalDateTime now = LocalDateTime.now();
+        employees.forEach(employee -> {
+            employee.setId(null);
+            employee.setCreatedAt(now);
+            employee.setUpdatedAt(now);
+        });
+        return employeeRepository.insertAllInBatch(employees);
+    }
+
+    private int[] updateChunk(List<Employee> employees) {
+        LocalDateTime now = LocalDateTime.now();
+        employees.forEach(employee -> employee.setUpdatedAt(now));
+        int[] updateCounts = employeeRepository.updateAllInBatch(employees);
+        // The employees not in the employee table may be archived ones, moved back first like EmployeeService does
+        List<Integer> restored = new ArrayList<>();
+        for (int i = 0; i < employees.size(); i++) {
+            if (updateCounts[i] == 0 && employeeArchiveRepository.restore(employees.get(i).getId())) {
+                restored.add(i);
+            }
+        }
+        if (!restored.isEmpty()) {
+            int[] restoredUpdateCounts = employeeRepository.updateAllInBatch(restored.stream().map(employees::get).toList());
+            for (int i = 0; i < restored.size(); i++) {
+                updateCounts[restored.get(i)] = restoredUpdateCounts[i];
+            }
+        }
+        return updateCounts;
+    }
+
+    private String validateForCreate(Employee employee) {
+        if (employee == null) {
+            return "employee must not be null";
+        }
+        return validate(employee);
+    }
+
+    private String validateForUpdate(Employee employee) {
+        if (employee == null) {
+            return "employee must not be null";
+        }
+        if (employee.getId() == null) {
+            return "id must not be null";
+        }
+        return validate(employee);
+    }
+
+    private String validate(Employee employee) {
+        return validator.validate(employee).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.collectingAndThen(Collectors.joining(", "), errors -> errors.isEmpty() ? null : errors));
+    }
+
+    private <T> BatchResult process(Iterator<T> items, Function<T, String> validation, Function<List<T>, int[]> writer,
+                                    Function<T, Integer> idOf, BatchItemStatus successStatus) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<IndexedItem<T>> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        while (true) {
+            T item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                if (index >= maxItems) {
+                    results.add(new BatchItemResult(index, null, BatchItemStatus.FAILED,
+                            "Too many items, at most " + maxItems + " per request, the following ones were not processed"));
+                    break;
+                }
+                item = items.next();
+            } catch (RuntimeException e) {
+                // The rest of the input cannot be read, keep what was processed so far
+                results.add(new BatchItemResult(index, null, BatchItemStatus.FAILED, "Unreadable item: " + e.getMessage()));
+                break;
+            }
+
+            String error = validation.apply(item);
+            if (error != null) {
+                results.add(new BatchItemResult(index, item == null ? null : idOf.apply(item), BatchItemStatus.FAILED, error));
+            } else {
+                chunk.add(new IndexedItem<>(index, item));
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, writer, idOf, successStatus, results);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, writer, idOf, successStatus, results);
+        }
+
+        results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+        int failed = (int) results.stream().filter(result -> result.getStatus() == BatchItemStatus.FAILED).count();
+        log.info("Batch {} processed {} employees, {} failed", successStatus, results.size(), failed);
+        return new BatchResult(results.size() - failed, failed, results);
+    }
+
+    private <T> void writeChunk(List<IndexedItem<T>> chunk, Function<List<T>, int[]> writer, Function<T, Integer> idOf,
+                                BatchItemStatus successStatus, List<BatchItemResult> results) {
+        List<T> values = chunk.stream().map(IndexedItem::item).collect(Collectors.toList());
+        int[] updateCounts;
+        try {
+            updateCounts = transactionTemplate.execute(status -> writer.apply(values));
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                IndexedItem<T> indexedItem = chunk.get(0);
+                results.add(new BatchItemResult(indexedItem.index(), idOf.apply(indexedItem.item()), BatchItemStatus.FAILED,
+                        e.getMostSpecificCause().getMessage()));
+                return;
+            }
+            log.warn("Batch chunk of {} employees failed, retrying items one by one", chunk.size());
+            chunk.forEach(indexedItem -> writeChunk(List.of(indexedItem), writer, idOf, successStatus, results));
+            return;
+        }
+        // The batch statements bypass EmployeeService, so the cached copies (or cached misses) are dropped here
+        evictFromCache(values.stream().map(idOf).filter(Objects::nonNull).toList());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            IndexedItem<T> indexedItem = chunk.get(i);
+            Integer id = idOf.apply(indexedItem.item());
+            int updateCount = updateCounts[i];
+            if (updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO) {
+                results.add(new BatchItemResult(indexedItem.index(), id, successStatus, null));
+            } else {
+                results.add(new BatchItemResult(indexedItem.index(), id, BatchItemStatus.FAILED,
+                        "Employee with id: " + id + " doesn't exist"));
+            }
+        }
+    }
+
+    private void evictFromCache(List<Integer> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private record IndexedItem<T>(int index, T item) {
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the employee caches of this instance, the employees cache and the Hibernate second-level cache, consistent
+ * with the writes of the other instances. Every write records a change in the employee_change outbox within its
+ * transaction; each instance follows the outbox and evicts the employees that changed, and the cached query results.
+ * Caches stay local, near the requests, and only the changed entries are evicted, so the hit rate does not drop as
+ * instances are added: each of them reads the outbox once per poll, whatever the number of writes.
+ * <p>
+ * On PostgreSQL, a trigger sends a notification on the employee_change channel when changes are committed, and the
+ * outbox is relayed and read right away rather than at the next poll-interval. Elsewhere, and while the listening
+ * connection is down, polling alone bounds the staleness at poll-interval.
+ * When the outbox could not be read for max-staleness, the caches are cleared at every poll until it can.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "employee.cache.invalidation.enabled", havingValue = "true")
+public class EmployeeCacheInvalidator implements SmartLifecycle {
+
+    static final String CHANNEL = "employee_change";
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final EmployeeChangeService employeeChangeService;
+
+    private final CacheManager cacheManager;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final DataSource dataSource;
+
+    private final Counter invalidations;
+
+    @Value("${employee.cache.invalidation.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${employee.cache.invalidation.max-staleness:10s}")
+    private Duration maxStaleness;
+
+    @Value("${employee.cache.invalidation.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Sequence number of the last change evicted, only used by the scheduler thread
+     */
+    private long position;
+
+    private volatile long caughtUpAt = System.nanoTime();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    private Thread listener;
+
+    public EmployeeCacheInvalidator(EmployeeChangeRepository employeeChangeRepository,
+                                    EmployeeChangeService employeeChangeService, CacheManager cacheManager,
+                                    EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                    MeterRegistry meterRegistry) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.employeeChangeService = employeeChangeService;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.invalidations = Counter.builder("employee.cache.invalidations")
+                .description("Employees evicted from the caches after a change made by any instance")
+                .register(meterRegistry);
+        Gauge.builder("employee.cache.invalidation.lag", this, invalidator -> invalidator.lag().toMillis() / 1000.0)
+                .description("Seconds since the caches were last known to be consistent with the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Follows the changes made from now on: the caches are empty, whatever they would evict was not read yet.
+     * Changes that are not relayed yet get a sequence number above the last one.
+     */
+    @Override
+    public void start() {
+        position = employeeChangeRepository.findLastSequence().orElse(0);
+        caughtUpAt = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-cache-invalidator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        if (isPostgreSql()) {
+            listener = new Thread(this::listen, "employee-cache-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService stopped = scheduler;
+        scheduler = null;
+        stopped.shutdownNow();
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Relays the committed changes, then evicts the employees changed since the last poll
+     */
+    void poll() {
+        try {
+            employeeChangeService.relay();
+            List<EmployeeChange> changes;
+            do {
+                changes = employeeChangeRepository.findSince(position, batchSize);
+                if (changes.isEmpty()) {
+                    break;
+                }
+                List<Integer> ids = changes.stream().map(EmployeeChange::getEmployeeId).distinct().toList();
+                evict(ids);
+                // Again a poll-interval later, after the reads that started before the change and put the old
+                // employee back in the cache once it was evicted
+                ScheduledExecutorService current = scheduler;
+                if (current != null) {
+                    current.schedule(() -> evict(ids), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                }
+                position = changes.get(changes.size() - 1).getSequence();
+            } while (changes.size() == batchSize);
+            caughtUpAt = System.nanoTime();
+        } catch (DataAccessException e) {
+            if (lag().compareTo(maxStaleness) > 0) {
+                log.warn("Could not read the employee changes for {}, clearing the employee caches", lag(), e);
+                clear();
+            } else {
+                log.warn("Could not read the employee changes, retrying in {}", pollInterval, e);
+            }
+        }
+    }
+
+    void evict(List<Integer> ids) {
+        Cache employees = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        jakarta.persistence.Cache secondLevelCache = entityManagerFactory.getCache();
+        for (Integer id : ids) {
+            if (employees != null) {
+                employees.evict(id);
+            }
+            secondLevelCache.evict(Employee.class, id);
+        }
+        // The update timestamps Hibernate checks cached query results against are only those of this instance
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+        invalidations.increment(ids.size());
+    }
+
+    Duration lag() {
+        return Duration.ofNanos(System.nanoTime() - caughtUpAt);
+    }
+
+    private void clear() {
+        Cache employees = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (employees != null) {
+            employees.clear();
+        }
+        entityManagerFactory.getCache().evict(Employee.class);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * Holds a connection of the pool for as long as the instance runs, listening to the employee_change channel.
+     * Notifications only wake the scheduler up, the changes themselves are always read from the outbox.
+     */
+    private void listen() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Whatever was committed while not listening
+                wakeUp();
+                while (!Thread.currentThread().isInterrupted()) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        wakeUp();
+                    }
+                }
+            } catch (SQLException e) {
+                if (scheduler == null) {
+                    // Stopped, the pool closed the connection
+                    return;
+                }
+                log.warn("Lost the {} notifications, polling every {} until reconnected", CHANNEL, pollInterval, e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void wakeUp() {
+        ScheduledExecutorService current = scheduler;
+        if (current != null) {
+            current.execute(this::poll);
+        }
+    }
+
+    private boolean isPostgreSql() {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException e) {
+            log.warn("Could not tell the database apart, polling for the employee changes", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.dto.EmployeeChangePage;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.ChangesExpiredException;
+import com.example.springboottemplate.exception.InvalidLimitException;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Change feed of the employees, read from the employee_change outbox. Clients keep the sequence number of the last
+ * change they applied and ask for the changes that follow it, either page by page or as a stream of server-sent
+ * events. A single thread polls the outbox for every subscriber and queues the new changes of each one, up to
+ * subscriber-buffer; they are sent by a thread of the subscriber, so that a slow client only holds up itself.
+ * A subscriber whose queue has had no room for a page for max-subscriber-lag is dropped, it reconnects with its
+ * Last-Event-ID.
+ * <p>
+ * Changes are staged when written, and only get their sequence number once committed, when the relay moves them to the
+ * feed every poll-interval, see EmployeeChangeRepository.relay. A change therefore never appears after one with a
+ * higher number, however long its transaction took to commit, and clients may skip a missing number: it belongs to a
+ * relay that was rolled back.
+ */
+@Service
+@Slf4j
+public class EmployeeChangeService implements SmartLifecycle {
+
+    private static final String EVENT_NAME = "employee-change";
+
+    private static final long RETENTION_CHECK_INTERVAL_MINUTES = 60;
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * For the reads of the polling thread, which go around the transactional proxy
+     */
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Value("${employee.changes.poll-interval:1s}")
+    private Duration pollInterval;
+
+    @Value("${employee.changes.relay-batch-size:1000}")
+    private int relayBatchSize;
+
+    @Value("${employee.changes.retention:7d}")
+    private Duration retention;
+
+    @Value("${employee.changes.sse-timeout:30m}")
+    private Duration sseTimeout;
+
+    @Value("${employee.changes.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${employee.changes.subscriber-buffer:1000}")
+    private int subscriberBuffer;
+
+    @Value("${employee.changes.max-subscriber-lag:30s}")
+    private Duration maxSubscriberLag;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Sends the queued changes, at most one thread per subscriber at a time
+     */
+    private ExecutorService sender;
+
+    public EmployeeChangeService(EmployeeChangeRepository employeeChangeRepository, EmployeeRepository employeeRepository,
+                                 TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        Gauge.builder("employee.changes.subscribers", subscriptions, List::size)
+                .description("Clients subscribed to the change feed as server-sent events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param since - sequence number of the last change the client applied, 0 for all of them
+     * @param limit - maximum number of changes, at least 1, capped at max-page-size
+     * @return the changes that follow, with the current state of their employee
+     * @throws ChangesExpiredException when some of the changes that follow were already pruned
+     */
+    @Timed("employee.service")
+    @Transactional(readOnly = true)
+    public EmployeeChangePage getChanges(long since, int limit) {
+        if (limit < 1) {
+            throw new InvalidLimitException(limit);
+        }
+        checkNotExpired(since);
+        List<EmployeeChange> changes = employeeChangeRepository.findSince(since, Math.min(limit, maxPageSize));
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+
+        List<Integer> ids = changes.stream()
+                .filter(change -> change.getOperation() != ChangeOperation.DELETED)
+                .map(EmployeeChange::getEmployeeId)
+                .distinct()
+                .toList();
+        Map<Integer, Employee> employees = employeeRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        changes.forEach(change -> change.setEmployee(change.getOperation() == ChangeOperation.DELETED
+                ? null : employees.get(change.getEmployeeId())));
+        return new EmployeeChangePage(changes, nextSince);
+    }
+
+    /**
+     * Streams the changes that follow the given sequence number, then each new change as it is committed. The id of
+     * each event is the sequence number of its change, sent back by browsers in the Last-Event-ID header when they
+     * reconnect.
+     * @throws ChangesExpiredException when some of the changes that follow were already pruned
+     */
+    public SseEmitter subscribe(long since) {
+        checkNotExpired(since);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        Subscription subscription = new Subscription(emitter, since, Math.max(subscriberBuffer, maxPageSize));
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        return emitter;
+    }
+
+    /**
+     * The relay has a schedule of its own, so that sequence numbers are assigned whatever the subscribers are doing
+     */
+    @Override
+    public void start() {
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "employee-change-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = pollInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::relayAtInterval, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::publish, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::prune, 0, RETENTION_CHECK_INTERVAL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Ends the streams, clients reconnect to another instance with their Last-Event-ID
+     */
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        subscriptions.forEach(this::drop);
+        sender.shutdown();
+        scheduler = null;
+        sender = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    /**
+     * Moves the committed changes to the feed, relay-batch-size at a time. Every instance relays, one at a time.
+     */
+    public void relay() {
+        int relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> employeeChangeRepository.relay(relayBatchSize));
+        } while (relayed == relayBatchSize);
+    }
+
+    private void relayAtInterval() {
+        try {
+            relay();
+        } catch (DataAccessException e) {
+            log.warn("Could not relay the employee changes, retrying in {}", pollInterval, e);
+        }
+    }
+
+    /**
+     * Queues the new changes of every subscriber that has room for a page. Subscribers at the same position, the usual
+     * case once they are caught up, share a single read of the outbox.
+     */
+    void publish() {
+        Map<Long, EmployeeChangePage> pages = new HashMap<>();
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.queue.remainingCapacity() < maxPageSize) {
+                // Still sending the previous changes
+                if (subscription.laggingSince == 0) {
+                    subscription.laggingSince = now;
+                } else if (now - subscription.laggingSince >= maxSubscriberLag.toNanos()) {
+                    log.info("Dropped a change feed subscriber that could not keep up for {}", maxSubscriberLag);
+                    drop(subscription);
+                }
+                continue;
+            }
+            subscription.laggingSince = 0;
+            try {
+                EmployeeChangePage page = pages.computeIfAbsent(subscription.position,
+                        since -> readOnlyTransactionTemplate.execute(status -> getChanges(since, maxPageSize)));
+                if (!page.getChanges().isEmpty()) {
+                    // Only this thread adds to the queue, and it has room for a page
+                    subscription.queue.addAll(page.getChanges());
+                    subscription.position = page.getNextSince();
+                    send(subscription);
+                }
+            } catch (ChangesExpiredException e) {
+                // Fell behind the retention, the client gets a 410 when it reconnects
+                drop(subscription);
+            } catch (DataAccessException e) {
+                log.warn("Could not read the employee changes, retrying in {}", pollInterval, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Starts sending the queued changes of the subscriber, unless a thread is already sending them
+     */
+    private void send(Subscription subscription) {
+        if (subscription.sending.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        do {
+            EmployeeChange change;
+            while ((change = subscription.queue.poll()) != null) {
+                try {
+                    subscription.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSequence()))
+                            .name(EVENT_NAME)
+                            .data(change, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // Disconnected client, the flag stays set so that nothing is sent anymore
+                    subscriptions.remove(subscription);
+                    subscription.queue.clear();
+                    return;
+                }
+            }
+            subscription.sending.set(false);
+            // Changes queued between the last poll and the reset of the flag
+        } while (!subscription.queue.isEmpty() && subscription.sending.compareAndSet(false, true));
+    }
+
+    /**
+     * Completes the stream from a sender thread, since completing waits for a send in progress
+     */
+    private void drop(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.queue.clear();
+        sender.execute(subscription.emitter::complete);
+    }
+
+    void prune() {
+        try {
+            int deleted = employeeChangeRepository.deleteChangedBefore(LocalDateTime.now().minus(retention));
+            if (deleted > 0) {
+                log.info("Pruned {} employee changes older than {}", deleted, retention);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not prune the employee changes", e);
+        }
+    }
+
+    /**
+     * The changes that follow since are all there when since is at most one below the first sequence number kept
+     */
+    private void checkNotExpired(long since) {
+        OptionalLong firstSequence = employeeChangeRepository.findFirstSequence();
+        if (firstSequence.isPresent() && since < firstSequence.getAsLong() - 1) {
+            throw new ChangesExpiredException(since);
+        }
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Changes to send, in order
+         */
+        private final BlockingQueue<EmployeeChange> queue;
+
+        /**
+         * Set while a sender thread drains the queue
+         */
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        /**
+         * Sequence number of the last change queued, only updated by the publishing thread
+         */
+        private volatile long position;
+
+        /**
+         * Since when, in System.nanoTime, the queue has had no room for a page, 0 when it has. Only used by the
+         * publishing thread.
+         */
+        private long laggingSince;
+
+        private Subscription(SseEmitter emitter, long position, int capacity) {
+            this.emitter = emitter;
+            this.position = position;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.BatchItemResult;
+import com.example.springboottemplate.dto.BatchItemStatus;
+import com.example.springboottemplate.dto.ImportResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.InvalidImportException;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees from a stream of any size. Employees are validated as they are read and written straight to the
+ * database, without being collected: invalid ones are skipped and counted, the first max-reported-errors of them
+ * with the reason. The import is a single transaction, so that a file that cannot be read to the end or a database
+ * failure leaves the employee table as it was.
+ */
+@Service
+@Slf4j
+@Timed("employee.service")
+public class EmployeeImportService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final CacheManager cacheManager;
+
+    @Value("${employee.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${employee.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate,
+                                 Validator validator, CacheManager cacheManager) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Creates the employees, whatever id and version they carry, with the current time as their creation time
+     * @param employees - read lazily, an item that cannot be mapped to an Employee is rejected, an input that
+     *                  cannot be read any further fails the import
+     * @throws InvalidImportException when the input cannot be read to the end
+     */
+    public ImportResult importEmployees(Iterator<Employee> employees) {
+        ValidEmployees validEmployees = new ValidEmployees(employees, LocalDateTime.now());
+        Long imported = transactionTemplate.execute(status -> employeeRepository.importAll(validEmployees, chunkSize));
+
+        // The imported rows bypass EmployeeService and their ids are not known here, drops the cached misses
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            cache.clear();
+        }
+        log.info("Import of {} employees, {} imported, {} rejected", validEmployees.index, imported, validEmployees.rejected);
+        return new ImportResult(imported, validEmployees.rejected, validEmployees.errors);
+    }
+
+    private String validate(Employee employee) {
+        Set<ConstraintViolation<Employee>> violations = validator.validate(employee);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * The valid employees of the input, ready to insert. Rejections are recorded as the input is read.
+     */
+    private class ValidEmployees implements Iterator<Employee> {
+
+        private final Iterator<Employee> employees;
+
+        private final LocalDateTime now;
+
+        private final List<BatchItemResult> errors = new ArrayList<>();
+
+        private long index;
+
+        private long rejected;
+
+        private Employee next;
+
+        private ValidEmployees(Iterator<Employee> employees, LocalDateTime now) {
+            this.employees = employees;
+            this.now = now;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && readable()) {
+                Employee employee;
+                try {
+                    employee = employees.next();
+                } catch (RuntimeJsonMappingException e) {
+                    // The item is readable but is not an employee, the next one can still be read
+                    reject(e.getMessage());
+                    continue;
+                } catch (RuntimeException e) {
+                    throw new InvalidImportException(index, e);
+                }
+                String error = employee == null ? "employee must not be null" : validate(employee);
+                if (error != null) {
+                    reject(error);
+                    continue;
+                }
+                employee.setId(null);
+                employee.setVersion(null);
+                employee.setCreatedAt(now);
+                employee.setUpdatedAt(now);
+                next = employee;
+                index++;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Employee next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Employee employee = next;
+            next = null;
+            return employee;
+        }
+
+        private boolean readable() {
+            try {
+                return employees.hasNext();
+            } catch (RuntimeException e) {
+                throw new InvalidImportException(index, e);
+            }
+        }
+
+        private void reject(String error) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BatchItemResult((int) index, null, BatchItemStatus.FAILED, error));
+            }
+            rejected++;
+            index++;
+        }
+    }
+}
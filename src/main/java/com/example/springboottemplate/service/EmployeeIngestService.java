@@ -0,0 +1,382 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.IngestResult;
+import com.example.springboottemplate.dto.IngestStatus;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.IngestNotFoundException;
+import com.example.springboottemplate.exception.IngestQueueFullException;
+import com.example.springboottemplate.repository.EmployeeIngestRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous creation of employees (write-behind). An accepted employee is appended to a local journal file, which
+ * is forced to disk before the caller gets its tracking id, then queued. A single writer thread drains the queue in
+ * batches, each inserted with one JDBC batch together with the outcome of its employees, so that the journal entries
+ * left over by a crash are replayed on the next start, except those whose outcome is already in the database.
+ * The journal is truncated whenever every accepted employee has been written.
+ */
+@Service
+@Slf4j
+@RegisterReflectionForBinding(EmployeeIngestService.JournalEntry.class)
+@ConditionalOnProperty(name = "employee.ingest.enabled", havingValue = "true")
+public class EmployeeIngestService implements SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeIngestRepository employeeIngestRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheManager cacheManager;
+
+    private final BlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Accepted employees not written yet, by tracking id. Entries are added and removed under journalLock, together
+     * with the journal appends and truncations.
+     */
+    private final Map<String, JournalEntry> pending = new ConcurrentHashMap<>();
+
+    /**
+     * A lock rather than a monitor: the journal I/O done under it would pin the carrier thread of a virtual thread
+     */
+    private final Lock journalLock = new ReentrantLock();
+
+    @Value("${employee.ingest.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${employee.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employee.ingest.journal-file:employee-ingest.journal}")
+    private Path journalFile;
+
+    /**
+     * Free room in the queue, taken before journaling an employee and given back once it is written
+     */
+    private Semaphore capacity;
+
+    private FileChannel journal;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    public EmployeeIngestService(EmployeeRepository employeeRepository, EmployeeIngestRepository employeeIngestRepository,
+                                 TransactionTemplate transactionTemplate, ObjectMapper objectMapper, CacheManager cacheManager,
+                                 MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.employeeIngestRepository = employeeIngestRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        Gauge.builder("employee.ingest.queue", queue, Queue::size)
+                .description("Employees accepted for asynchronous ingestion and not written yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Journals and queues the employee for insertion
+     * @param employee - employee to create, already validated
+     * @return the tracking id of the employee, with the PENDING status
+     * @throws IngestQueueFullException when queue-capacity employees are already waiting
+     */
+    @Timed("employee.service")
+    public IngestResult accept(Employee employee) {
+        if (!capacity.tryAcquire()) {
+            throw new IngestQueueFullException(queueCapacity);
+        }
+        JournalEntry entry = new JournalEntry(UUID.randomUUID().toString(), employee);
+        long start = -1;
+        long end = -1;
+        try {
+            ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            journalLock.lock();
+            try {
+                start = journal.size();
+                while (line.hasRemaining()) {
+                    journal.write(line);
+                }
+                end = journal.size();
+                pending.put(entry.trackingId(), entry);
+            } finally {
+                journalLock.unlock();
+            }
+            // Outside of the lock, so that concurrent requests share the cost of a disk flush
+            journal.force(false);
+        } catch (IOException e) {
+            journalLock.lock();
+            try {
+                pending.remove(entry.trackingId());
+                discard(start, end, e);
+            } finally {
+                journalLock.unlock();
+            }
+            capacity.release();
+            throw new UncheckedIOException("Could not journal employee " + entry.trackingId(), e);
+        }
+        queue.add(entry);
+        return new IngestResult(entry.trackingId(), IngestStatus.PENDING, null, null);
+    }
+
+    /**
+     * Truncates the journal back to where the rejected employee was appended, so that it is not replayed and that a
+     * torn line does not swallow the next one. An employee already followed by others, once its force failed, is left
+     * in the journal: truncating would drop them, and it is forgotten once the journal is truncated as a whole.
+     * Called under journalLock.
+     * @param start - size of the journal before the employee was appended, -1 when it was not
+     * @param end - size of the journal once it was appended, -1 when the append failed
+     */
+    private void discard(long start, long end, IOException cause) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            if (end < 0 || journal.size() == end) {
+                journal.truncate(start);
+            }
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    @Timed("employee.service")
+    public IngestResult getStatus(String trackingId) {
+        if (pending.containsKey(trackingId)) {
+            return new IngestResult(trackingId, IngestStatus.PENDING, null, null);
+        }
+        return employeeIngestRepository.findById(trackingId).orElseThrow(() -> new IngestNotFoundException(trackingId));
+    }
+
+    /**
+     * Opens the journal, queues the entries that were not written before the last shutdown and starts the writer
+     */
+    @Override
+    public void start() {
+        try {
+            Path directory = journalFile.toAbsolutePath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            List<JournalEntry> replayed = replay();
+            capacity = new Semaphore(queueCapacity - replayed.size());
+            replayed.forEach(entry -> pending.put(entry.trackingId(), entry));
+            queue.addAll(replayed);
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the ingestion journal " + journalFile, e);
+        }
+        running = true;
+        writer = new Thread(this::drain, "employee-ingest-writer");
+        writer.start();
+    }
+
+    /**
+     * Lets the writer finish what is queued. What it could not write stays in the journal for the next start.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the ingestion journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before, and stopped after, the web server that accepts the employees
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private List<JournalEntry> replay() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return List.of();
+        }
+        Map<String, JournalEntry> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                    entries.put(entry.trackingId(), entry);
+                } catch (JsonProcessingException e) {
+                    // Torn write of a crash, never acknowledged since the journal was not forced
+                    log.warn("Skipping unreadable ingestion journal line: {}", line);
+                }
+            }
+        }
+        List<String> trackingIds = new ArrayList<>(entries.keySet());
+        for (int i = 0; i < trackingIds.size(); i += batchSize) {
+            Set<String> written = employeeIngestRepository.findExistingIds(trackingIds.subList(i, Math.min(i + batchSize, trackingIds.size())));
+            written.forEach(entries::remove);
+        }
+        log.info("Replaying {} employees from the ingestion journal {}", entries.size(), journalFile);
+        return new ArrayList<>(entries.values());
+    }
+
+    private void drain() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                JournalEntry first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                while (!write(batch)) {
+                    if (!running) {
+                        return;
+                    }
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Inserts the batch, or each of its employees on their own when one of them is rejected by the database.
+     * Employees are removed from the batch as they are written one by one.
+     * @return false when the database could not be reached, what is left of the batch should be retried
+     */
+    private boolean write(List<JournalEntry> batch) {
+        List<IngestResult> results;
+        try {
+            results = transactionTemplate.execute(status -> insert(batch));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() > 1) {
+                log.warn("Ingestion batch of {} employees failed, retrying them one by one", batch.size());
+                while (!batch.isEmpty()) {
+                    if (!write(List.of(batch.get(0)))) {
+                        return false;
+                    }
+                    batch.remove(0);
+                }
+                return true;
+            }
+            results = List.of(new IngestResult(batch.get(0).trackingId(), IngestStatus.FAILED, null,
+                    e.getMostSpecificCause().getMessage()));
+            try {
+                employeeIngestRepository.insertAllInBatch(results, LocalDateTime.now());
+            } catch (DataAccessException recordFailure) {
+                log.error("Could not record the ingestion failure of {}", batch.get(0).trackingId(), recordFailure);
+                return false;
+            }
+        } catch (DataAccessException e) {
+            log.error("Ingestion batch of {} employees failed, retrying", batch.size(), e);
+            return false;
+        }
+        complete(batch, results);
+        return true;
+    }
+
+    private List<IngestResult> insert(List<JournalEntry> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Employee> employees = batch.stream().map(JournalEntry::employee).toList();
+        employees.forEach(employee -> {
+            employee.setId(null);
+            employee.setCreatedAt(now);
+            employee.setUpdatedAt(now);
+        });
+        employeeRepository.insertAllInBatch(employees);
+
+        List<IngestResult> results = batch.stream()
+                .map(entry -> new IngestResult(entry.trackingId(), IngestStatus.CREATED, entry.employee().getId(), null))
+                .toList();
+        employeeIngestRepository.insertAllInBatch(results, now);
+        return results;
+    }
+
+    private void complete(List<JournalEntry> batch, List<IngestResult> results) {
+        // Drops the cached misses of the new ids
+        Cache cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            results.stream().map(IngestResult::getEmployeeId).filter(id -> id != null).forEach(cache::evict);
+        }
+        journalLock.lock();
+        try {
+            batch.forEach(entry -> pending.remove(entry.trackingId()));
+            if (pending.isEmpty()) {
+                try {
+                    journal.truncate(0);
+                } catch (IOException e) {
+                    // Harmless, the written entries are skipped when replayed
+                    log.warn("Could not truncate the ingestion journal", e);
+                }
+            }
+        } finally {
+            journalLock.unlock();
+        }
+        capacity.release(batch.size());
+    }
+
+    /**
+     * A line of the journal
+     */
+    record JournalEntry(String trackingId, Employee employee) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.ReplicaDataSource;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Database reads of EmployeeService shared between concurrent callers, so that a burst of cache misses costs a few
+ * queries rather than one per request.
+ * <p>
+ * A read of an employee, or of all of them, that is already in progress is not run again: the callers wait for it and
+ * all get its result. Employees read by id within batch-window of each other, up to max-batch-size of them, are read
+ * together by one WHERE id IN (...) query on one of the loader-threads; a batch-window of 0 reads each on its own.
+ * A caller may thus get the result of a read started shortly before its call, as it would from a cache.
+ * <p>
+ * Reads happen in transactions of their own, so that callers waiting for a shared read hold no connection. Reads by id,
+ * batched or not, are read-write transactions and so always read from the primary: a batch of the loader-threads
+ * serves callers that read their own writes as well as the others.
+ */
+@Service
+public class EmployeeLoader implements SmartLifecycle {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final SingleFlight<Integer, Optional<Employee>> employeeReads;
+
+    private final SingleFlight<Boolean, List<Employee>> allEmployeesReads;
+
+    private final DistributionSummary batchSizes;
+
+    @Value("${employee.coalescing.batch-window:2ms}")
+    private Duration batchWindow;
+
+    @Value("${employee.coalescing.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Value("${employee.coalescing.loader-threads:4}")
+    private int loaderThreads;
+
+    private ScheduledExecutorService executor;
+
+    private volatile MicroBatcher<Integer, Employee> batcher;
+
+    private volatile boolean running;
+
+    public EmployeeLoader(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        Counter sharedById = sharedCounter(meterRegistry, "by-id");
+        Counter sharedAll = sharedCounter(meterRegistry, "all");
+        this.employeeReads = new SingleFlight<>(sharedById::increment);
+        this.allEmployeesReads = new SingleFlight<>(sharedAll::increment);
+        this.batchSizes = DistributionSummary.builder("employee.coalescing.batch.size")
+                .description("Employees read by id by each batched query")
+                .register(meterRegistry);
+    }
+
+    private static Counter sharedCounter(MeterRegistry meterRegistry, String read) {
+        return Counter.builder("employee.coalescing.shared")
+                .description("Reads served by a read already in progress for another caller")
+                .tag("read", read)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!batchWindow.isZero()) {
+            executor = Executors.newScheduledThreadPool(loaderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "employee-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            batcher = new MicroBatcher<>(batchWindow, maxBatchSize, this::findAllById, batchSizes::record, executor);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        batcher = null;
+        if (executor != null) {
+            // Batches already waiting for the end of their window are still read
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Started before, and stopped after, the web server, so that the requests it drains still have their reads batched
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Reads the employee from the primary, a replica lagging behind a write could be cached by the caller
+     */
+    public Optional<Employee> findById(Integer id) {
+        return employeeReads.execute(id, () -> {
+            MicroBatcher<Integer, Employee> currentBatcher = batcher;
+            if (currentBatcher != null) {
+                try {
+                    return Optional.ofNullable(SingleFlight.join(currentBatcher.load(id)));
+                } catch (RejectedExecutionException e) {
+                    // Stopped since the batcher was read, the employee is read on its own
+                }
+            }
+            return transactionTemplate.execute(status -> employeeRepository.findById(id));
+        });
+    }
+
+    /**
+     * Reads all the employees in a read-only transaction. Callers reading from the primary, to see their own writes,
+     * only share the reads of each other.
+     * @return the employees, unmodifiable since the list is shared
+     */
+    public List<Employee> findAll() {
+        return allEmployeesReads.execute(ReplicaDataSource.isReadFromPrimary(), () -> Collections.unmodifiableList(
+                readOnlyTransactionTemplate.execute(status -> employeeRepository.findAll())));
+    }
+
+    private Map<Integer, Employee> findAllById(List<Integer> ids) {
+        List<Employee> employees = transactionTemplate.execute(status ->
+                employeeRepository.findAllByIdInChunks(ids, maxBatchSize));
+        Map<Integer, Employee> employeesById = new HashMap<>();
+        for (Employee employee : employees) {
+            if (employee != null) {
+                employeesById.put(employee.getId(), employee);
+            }
+        }
+        return employeesById;
+    }
+}
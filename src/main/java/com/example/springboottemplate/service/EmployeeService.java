@@ -1,30 +1,225 @@
 package com.example.springboottemplate.service;
 
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
+import com.example.springboottemplate.dto.EmployeeMultiGetResult;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.dto.EmployeeProjectionPage;
+import com.example.springboottemplate.dto.EmployeeSearchCriteria;
 import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.EmployeeNotFoundException;
+import com.example.springboottemplate.exception.EmployeeVersionConflictException;
+import com.example.springboottemplate.exception.InvalidCursorException;
+import com.example.springboottemplate.exception.InvalidSortException;
+import com.example.springboottemplate.exception.TooManyIdsException;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import com.example.springboottemplate.repository.EmployeeSortField;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import com.example.springboottemplate.repository.EmployeeRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.springboottemplate.repository.EmployeeSpecifications.ageBetween;
+import static com.example.springboottemplate.repository.EmployeeSpecifications.hasDesignation;
+import static com.example.springboottemplate.repository.EmployeeSpecifications.joinedBetween;
+import static com.example.springboottemplate.repository.EmployeeSpecifications.lastNameStartsWith;
 
 @Service
 @Slf4j
+@Timed("employee.service")
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
 
-    public EmployeeService(EmployeeRepository employeeRepository) {
+    private final EntityManager entityManager;
+
+    private final EmployeeChangeRepository employeeChangeRepository;
+
+    private final EmployeeArchiveRepository employeeArchiveRepository;
+
+    private final EmployeeLoader employeeLoader;
+
+    @Value("${employee.pagination.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${employee.pagination.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${employee.multi-get.max-ids:10000}")
+    private int maxMultiGetIds;
+
+    @Value("${employee.multi-get.chunk-size:1000}")
+    private int multiGetChunkSize;
+
+    @Value("${employee.cache.negative-lookups:false}")
+    private boolean cacheNegativeLookups;
+
+    public EmployeeService(EmployeeRepository employeeRepository, EntityManager entityManager,
+                           EmployeeChangeRepository employeeChangeRepository,
+                           EmployeeArchiveRepository employeeArchiveRepository, EmployeeLoader employeeLoader) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.employeeChangeRepository = employeeChangeRepository;
+        this.employeeArchiveRepository = employeeArchiveRepository;
+        this.employeeLoader = employeeLoader;
     }
 
+    /**
+     * Concurrent calls share a single read of the table, see EmployeeLoader
+     * @return all the employees, unmodifiable
+     */
     public List<Employee> getAllEmployees(){
-        return employeeRepository.findAll();
+        return employeeLoader.findAll();
+    }
+
+    /**
+     * Cheap stand-in for the content of getAllEmployees, to answer conditional requests without loading every employee
+     */
+    @Transactional(readOnly = true)
+    public EmployeeCollectionVersion getEmployeeCollectionVersion(){
+        return employeeRepository.findCollectionVersion();
+    }
+
+    /**
+     * Fetches the page of employees that follows the given cursor, using keyset pagination on the id.
+     * @param cursor - cursor returned with the previous page, or null for the first page
+     * @param size - page size, or null for the configured default
+     * @return the page and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeePage(String cursor, Integer size){
+        int pageSize = pageSize(size);
+        Integer afterId = cursor == null || cursor.isBlank() ? 0 : parseCursorId(cursor, decodeCursor(cursor));
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+
+        String nextCursor = employees.size() < pageSize ? null : encodeCursor(employees.get(employees.size() - 1).getId().toString());
+        return new EmployeePage(employees, nextCursor);
+    }
+
+    /**
+     * Fetches the page of employees matching the criteria that follows the given cursor. Pages are sorted on the
+     * requested attribute then on id, and paginated on that pair, so each page is an index range scan.
+     * @param criteria - filters and sort order, the same for every page
+     * @param cursor - cursor returned with the previous page, or null for the first page
+     * @param size - page size, or null for the configured default
+     * @return the page and the cursor of the next page
+     */
+    @Transactional(readOnly = true)
+    public EmployeePage searchEmployees(EmployeeSearchCriteria criteria, String cursor, Integer size){
+        SearchQuery query = toSearchQuery(criteria, cursor, size);
+        List<Employee> employees = employeeRepository.search(query.filter(), query.sortField(), query.direction(),
+                query.afterValue(), query.afterId(), Limit.of(query.pageSize()));
+
+        String nextCursor = null;
+        if (employees.size() == query.pageSize()) {
+            Employee last = employees.get(employees.size() - 1);
+            nextCursor = query.nextCursor(last.getId(), query.sortField().valueOf(last));
+        }
+        return new EmployeePage(employees, nextCursor);
+    }
+
+    /**
+     * Same as getAllEmployees, but only the given attributes are read from the database
+     * @param attributes - Employee attributes to return
+     * @return each employee as a map of attribute name to value, in id order
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllEmployees(List<String> attributes){
+        return employeeRepository.searchAttributes(Specification.where(null), EmployeeSortField.ID, Sort.Direction.ASC,
+                null, null, Limit.unlimited(), attributes);
+    }
+
+    /**
+     * Same as getEmployeePage, but only the given attributes, and the id, are read from the database
+     */
+    @Transactional(readOnly = true)
+    public EmployeeProjectionPage getEmployeePage(String cursor, Integer size, List<String> attributes){
+        return searchEmployees(new EmployeeSearchCriteria(), cursor, size, attributes);
+    }
+
+    /**
+     * Same as searchEmployees, but only the given attributes, and the id, are read from the database.
+     * No Employee entity is created, the rows are returned as maps of attribute name to value.
+     */
+    @Transactional(readOnly = true)
+    public EmployeeProjectionPage searchEmployees(EmployeeSearchCriteria criteria, String cursor, Integer size,
+                                                  List<String> attributes){
+        SearchQuery query = toSearchQuery(criteria, cursor, size);
+        String sortAttribute = query.sortField().getAttribute();
+        // The id and the sort value are needed for the cursor even when they were not requested
+        Set<String> selection = new LinkedHashSet<>();
+        selection.add("id");
+        selection.addAll(attributes);
+        selection.add(sortAttribute);
+
+        List<Map<String, Object>> employees = employeeRepository.searchAttributes(query.filter(), query.sortField(),
+                query.direction(), query.afterValue(), query.afterId(), Limit.of(query.pageSize()), selection);
+
+        String nextCursor = null;
+        if (employees.size() == query.pageSize()) {
+            Map<String, Object> last = employees.get(employees.size() - 1);
+            nextCursor = query.nextCursor((Integer) last.get("id"), last.get(sortAttribute));
+        }
+        if (!attributes.contains(sortAttribute) && !"id".equals(sortAttribute)) {
+            employees.forEach(employee -> employee.remove(sortAttribute));
+        }
+        return new EmployeeProjectionPage(employees, nextCursor);
+    }
+
+    /**
+     * Hands every employee to the given action, one at a time, without loading the whole table in memory.
+     * Each employee is detached once processed so the persistence context stays empty.
+     * @param action - action applied to each employee, in id order
+     */
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> action){
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                action.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
     }
 
+    /**
+     * Read-through: served from the employees cache, the database is only queried on a miss.
+     * Ids that don't exist are cached too when employee.cache.negative-lookups is enabled.
+     * Misses are read from the primary: a replica lagging behind a write that evicted the entry
+     * would otherwise put stale data back in the cache for its whole time to live.
+     * Employees moved to the archive are read from there, and cached like the others.
+     * Concurrent misses share their reads, and misses close in time are read together, see EmployeeLoader.
+     */
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, unless = "#result == null && !#root.target.cacheNegativeLookups")
     public Employee getEmployeeById(Integer id){
-        Optional<Employee> optionalEmployee = employeeRepository.findById(id);
+        Optional<Employee> optionalEmployee = employeeLoader.findById(id)
+                .or(() -> employeeArchiveRepository.findById(id));
         if(optionalEmployee.isPresent()){
             return optionalEmployee.get();
         }
@@ -32,28 +227,213 @@ public class EmployeeService {
         return null;
     }
 
+    /**
+     * Fetches the employees with the given ids, with one WHERE id IN (...) query per chunk of multi-get.chunk-size ids.
+     * Employees in the second-level cache are not read again, and the ids not in the employee table are looked up in
+     * the archive.
+     * @param ids - employee ids, at most multi-get.max-ids; an id repeated is only returned once
+     * @return the employees in the order of the ids, and the ids that matched no employee
+     */
+    @Transactional(readOnly = true)
+    public EmployeeMultiGetResult getEmployeesByIds(List<Integer> ids){
+        if (ids.size() > maxMultiGetIds) {
+            throw new TooManyIdsException(ids.size(), maxMultiGetIds);
+        }
+        List<Integer> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        List<Employee> employees = employeeRepository.findAllByIdInChunks(distinctIds, multiGetChunkSize);
+
+        List<Integer> notInTable = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            if (employees.get(i) == null) {
+                notInTable.add(distinctIds.get(i));
+            }
+        }
+        Map<Integer, Employee> archivedEmployees = notInTable.isEmpty() ? Map.of()
+                : employeeArchiveRepository.findAllById(notInTable).stream()
+                        .collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+        List<Employee> found = new ArrayList<>(distinctIds.size());
+        List<Integer> missingIds = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            Employee employee = employees.get(i) != null ? employees.get(i) : archivedEmployees.get(distinctIds.get(i));
+            if (employee != null) {
+                found.add(employee);
+            } else {
+                missingIds.add(distinctIds.get(i));
+            }
+        }
+        return new EmployeeMultiGetResult(found, missingIds);
+    }
+
+    /**
+     * Creates the employee and records the change for the change feed, in the same transaction
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee (Employee employee){
+        // Always a new employee, whatever id or version the client sent
+        employee.setId(null);
+        employee.setVersion(null);
         employee.setCreatedAt(LocalDateTime.now());
         employee.setUpdatedAt(LocalDateTime.now());
         Employee savedEmployee = employeeRepository.save(employee);
+        recordChange(savedEmployee.getId(), ChangeOperation.CREATED);
 
         log.info("Employee with id: {} saved successfully", employee.getId());
         return savedEmployee;
     }
 
+    /**
+     * Replaces the employee with the same id. When the employee carries a version, the update only applies if it is
+     * still the current version; without one, the last write wins. An archived employee is restored first.
+     * The existing row is read once and updated in place, and the change recorded, in the same transaction.
+     */
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee updateEmployee (Employee employee) {
-        Optional<Employee> existingEmployee = employeeRepository.findById(employee.getId());
-        employee.setCreatedAt(existingEmployee.get().getCreatedAt());
+        Employee existingEmployee = employeeRepository.findById(employee.getId())
+                .or(() -> {
+                    employeeArchiveRepository.restore(employee.getId());
+                    return employeeRepository.findById(employee.getId());
+                })
+                .orElseThrow(() -> new EmployeeNotFoundException(employee.getId()));
+        employee.setCreatedAt(existingEmployee.getCreatedAt());
         employee.setUpdatedAt(LocalDateTime.now());
+        if (employee.getVersion() == null) {
+            employee.setVersion(existingEmployee.getVersion());
+        }
 
-        Employee updatedEmployee = employeeRepository.save(employee);
+        Employee updatedEmployee;
+        try {
+            updatedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new EmployeeVersionConflictException(employee.getId());
+        }
+        recordChange(updatedEmployee.getId(), ChangeOperation.UPDATED);
 
         log.info("Employee with id: {} updated successfully", employee.getId());
         return updatedEmployee;
     }
 
+    /**
+     * Sets the given attributes in a single UPDATE ... WHERE id = ? AND version = ? statement, without reading the
+     * employee first. The cached copy is evicted rather than updated, since the full employee is never loaded.
+     * An archived employee is restored first.
+     * @param id - employee id
+     * @param version - version the changes apply to
+     * @param values - new value of each attribute to change, by attribute name
+     * @return the new version of the employee
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public int patchEmployee (Integer id, Integer version, Map<String, Object> values) {
+        int updated = employeeRepository.updateAttributes(id, version, values, LocalDateTime.now());
+        // Only failed updates pay for these lookups
+        if (updated == 0 && !employeeRepository.existsById(id)) {
+            if (!employeeArchiveRepository.restore(id) && !employeeRepository.existsById(id)) {
+                throw new EmployeeNotFoundException(id);
+            }
+            updated = employeeRepository.updateAttributes(id, version, values, LocalDateTime.now());
+        }
+        if (updated == 0) {
+            throw new EmployeeVersionConflictException(id);
+        }
+        recordChange(id, ChangeOperation.UPDATED);
+
+        log.info("Employee with id: {} patched successfully", id);
+        return version + 1;
+    }
+
+    /**
+     * Deletes the employee, or forgets it when it was archived, and records the change for the change feed, in the
+     * same transaction. Nothing is recorded when there was no such employee.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE)
     public void deleteEmployeeById (Integer id) {
-        employeeRepository.deleteById(id);
+        Optional<Employee> employee = employeeRepository.findById(id);
+        employee.ifPresent(employeeRepository::delete);
+        boolean archived = employeeArchiveRepository.deleteById(id);
+        if (employee.isPresent() || archived) {
+            recordChange(id, ChangeOperation.DELETED);
+        }
+    }
+
+    /**
+     * Read by the cache condition of getEmployeeById
+     */
+    public boolean isCacheNegativeLookups() {
+        return cacheNegativeLookups;
+    }
+
+    private void recordChange(Integer id, ChangeOperation operation) {
+        employeeChangeRepository.insertAllInBatch(List.of(id), operation, LocalDateTime.now());
+    }
+
+    private SearchQuery toSearchQuery(EmployeeSearchCriteria criteria, String cursor, Integer size) {
+        EmployeeSortField sortField = EmployeeSortField.ID;
+        Sort.Direction direction = Sort.Direction.ASC;
+        if (criteria.getSort() != null && !criteria.getSort().isBlank()) {
+            String[] sort = criteria.getSort().split(",", 2);
+            sortField = EmployeeSortField.fromAttribute(sort[0].trim())
+                    .orElseThrow(() -> new InvalidSortException(criteria.getSort()));
+            direction = sort.length == 1 ? Sort.Direction.ASC : Sort.Direction.fromOptionalString(sort[1].trim())
+                    .orElseThrow(() -> new InvalidSortException(criteria.getSort()));
+        }
+
+        Specification<Employee> filter = Specification.where(hasDesignation(criteria.getDesignation()))
+                .and(lastNameStartsWith(criteria.getLastNamePrefix()))
+                .and(ageBetween(criteria.getMinAge(), criteria.getMaxAge()))
+                .and(joinedBetween(criteria.getJoinedFrom(), criteria.getJoinedTo()));
+
+        // The cursor holds the id of the last employee and, unless null, its sort value: "id" or "id:value"
+        Integer afterId = null;
+        Object afterValue = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.indexOf(':');
+            afterId = parseCursorId(cursor, separator < 0 ? decoded : decoded.substring(0, separator));
+            if (separator >= 0 && sortField != EmployeeSortField.ID) {
+                try {
+                    afterValue = sortField.parse(decoded.substring(separator + 1));
+                } catch (RuntimeException e) {
+                    throw new InvalidCursorException(cursor);
+                }
+            }
+        }
+        return new SearchQuery(filter, sortField, direction, afterValue, afterId, pageSize(size));
+    }
+
+    private int pageSize(Integer size) {
+        return size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private static Integer parseCursorId(String cursor, String id) {
+        try {
+            return Integer.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    private record SearchQuery(Specification<Employee> filter, EmployeeSortField sortField, Sort.Direction direction,
+                               Object afterValue, Integer afterId, int pageSize) {
+
+        String nextCursor(Integer lastId, Object lastValue) {
+            return encodeCursor(sortField == EmployeeSortField.ID || lastValue == null ? lastId.toString() : lastId + ":" + lastValue);
+        }
     }
 
 }
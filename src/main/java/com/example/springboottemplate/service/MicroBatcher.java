@@ -0,0 +1,108 @@
+package com.example.springboottemplate.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Gathers the keys loaded within a window of the first one into a batch, loaded by a single call on the executor once
+ * the window is over or the batch is full, whichever comes first. A key already waiting in the batch is not added
+ * twice, its callers share the same future. Once the executor is shut down, the batches it rejects complete with its
+ * RejectedExecutionException, so that no caller waits for a batch that will never be loaded.
+ */
+final class MicroBatcher<K, V> {
+
+    private final Duration window;
+
+    private final int maxBatchSize;
+
+    private final Function<List<K>, Map<K, V>> loader;
+
+    private final Consumer<Integer> onBatch;
+
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+
+    /**
+     * @param loader - loads a batch of keys, the keys it returns no value for complete with null
+     * @param onBatch - run with the size of each batch before it is loaded
+     */
+    MicroBatcher(Duration window, int maxBatchSize, Function<List<K>, Map<K, V>> loader, Consumer<Integer> onBatch,
+                 ScheduledExecutorService executor) {
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.loader = loader;
+        this.onBatch = onBatch;
+        this.executor = executor;
+    }
+
+    CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (this) {
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1) {
+                Map<K, CompletableFuture<V>> batch = pending;
+                try {
+                    executor.schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    pending = new LinkedHashMap<>();
+                    fail(batch, e);
+                }
+            }
+        }
+        if (full != null) {
+            Map<K, CompletableFuture<V>> batch = full;
+            try {
+                executor.execute(() -> dispatch(batch));
+            } catch (RejectedExecutionException e) {
+                fail(batch, e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Dispatches the batch at the end of its window, unless it was dispatched already because it filled up
+     */
+    private void flush(Map<K, CompletableFuture<V>> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<K, CompletableFuture<V>> batch) {
+        try {
+            onBatch.accept(batch.size());
+            Map<K, V> values = loader.apply(List.copyOf(batch.keySet()));
+            batch.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            fail(batch, e);
+        }
+    }
+
+    private static <K, V> void fail(Map<K, CompletableFuture<V>> batch, Throwable e) {
+        batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.EmployeeNotFoundException;
+import com.example.springboottemplate.exception.EmployeeVersionConflictException;
+import com.example.springboottemplate.repository.ReactiveEmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reactive counterpart of EmployeeService, used by the reactive profile. Writes record their change for the change
+ * feed in the same R2DBC transaction, like those of EmployeeService.
+ */
+@Service
+@Profile("reactive")
+@Slf4j
+public class ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository reactiveEmployeeRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository reactiveEmployeeRepository,
+                                   TransactionalOperator transactionalOperator) {
+        this.reactiveEmployeeRepository = reactiveEmployeeRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Flux<Employee> getAllEmployees(){
+        return reactiveEmployeeRepository.findAll();
+    }
+
+    public Mono<Employee> getEmployeeById(Integer id){
+        return reactiveEmployeeRepository.findById(id)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.info("Employee with id: {} doesn't exist", id)));
+    }
+
+    public Mono<Employee> saveEmployee(Employee employee){
+        LocalDateTime now = LocalDateTime.now();
+        employee.setCreatedAt(now);
+        employee.setUpdatedAt(now);
+        return reactiveEmployeeRepository.insert(employee)
+                .flatMap(savedEmployee -> reactiveEmployeeRepository.insertChange(savedEmployee.getId(),
+                        ChangeOperation.CREATED, now).thenReturn(savedEmployee))
+                .as(transactionalOperator::transactional)
+                .doOnNext(savedEmployee -> log.info("Employee with id: {} saved successfully", savedEmployee.getId()));
+    }
+
+    /**
+     * Replaces the employee with the same id. When the employee carries a version, the update only applies if it is
+     * still the current version, like in EmployeeService; without one, the last write wins.
+     */
+    public Mono<Employee> updateEmployee(Employee employee) {
+        LocalDateTime now = LocalDateTime.now();
+        employee.setUpdatedAt(now);
+        return reactiveEmployeeRepository.update(employee)
+                .flatMap(updated -> updated == 0 ? notUpdated(employee.getId())
+                        : reactiveEmployeeRepository.insertChange(employee.getId(), ChangeOperation.UPDATED, now))
+                .then(reactiveEmployeeRepository.findById(employee.getId()))
+                .as(transactionalOperator::transactional)
+                .doOnNext(updatedEmployee -> log.info("Employee with id: {} updated successfully", updatedEmployee.getId()));
+    }
+
+    /**
+     * @return an EmployeeVersionConflictException when the employee exists, otherwise an EmployeeNotFoundException
+     */
+    private Mono<Void> notUpdated(Integer id) {
+        return reactiveEmployeeRepository.findById(id)
+                .flatMap(existing -> Mono.<Void>error(new EmployeeVersionConflictException(id)))
+                .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException(id)));
+    }
+
+    /**
+     * Nothing is recorded when there was no such employee
+     */
+    public Mono<Void> deleteEmployeeById(Integer id) {
+        return reactiveEmployeeRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>empty()
+                        : reactiveEmployeeRepository.insertChange(id, ChangeOperation.DELETED, LocalDateTime.now()))
+                .as(transactionalOperator::transactional);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.springboottemplate.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a single call per key at a time: callers arriving while a call for their key is in progress wait for it and
+ * get its result, or its exception, instead of calling again. Nothing is kept once the call returns, the next caller
+ * calls again.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Runnable onShared;
+
+    /**
+     * @param onShared - run for each caller served by the call of another one
+     */
+    SingleFlight(Runnable onShared) {
+        this.onShared = onShared;
+    }
+
+    V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            onShared.run();
+            return join(existing);
+        }
+        try {
+            V value = call.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return the value of the future, rethrowing the exception it completed with as it was thrown
+     */
+    static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
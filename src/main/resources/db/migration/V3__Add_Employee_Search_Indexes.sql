@@ -0,0 +1,6 @@
+-- Each search filter and sort column is indexed together with id, the keyset tie-breaker,
+-- so a filtered or sorted page is a single index range scan whatever its position.
+CREATE INDEX IF NOT EXISTS idx_employee_designation ON employee (designation, id);
+CREATE INDEX IF NOT EXISTS idx_employee_last_name ON employee (last_name, id);
+CREATE INDEX IF NOT EXISTS idx_employee_age ON employee (age, id);
+CREATE INDEX IF NOT EXISTS idx_employee_joined_on ON employee (joined_on, id);
@@ -0,0 +1,2 @@
+-- Serves max(updated_at), which versions the employee collection for conditional requests, without a table scan.
+CREATE INDEX IF NOT EXISTS idx_employee_updated_at ON employee (updated_at);
@@ -0,0 +1,2 @@
+-- Optimistic locking: every update increments version, and conditional updates match on it.
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS version integer NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+-- Outcome of each employee accepted by the asynchronous ingestion endpoint, written in the transaction of the insert.
+-- Also tells which journaled entries were already written when the journal is replayed after a restart.
+CREATE TABLE IF NOT EXISTS employee_ingest (
+    tracking_id varchar(36) NOT NULL PRIMARY KEY,
+    status varchar(16) NOT NULL,
+    employee_id integer,
+    error varchar(1000),
+    processed_at timestamp NOT NULL
+);
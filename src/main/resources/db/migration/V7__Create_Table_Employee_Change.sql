@@ -0,0 +1,10 @@
+-- Transactional outbox of the employee table: one row per created, updated or deleted employee, written in the
+-- transaction of the change. Read in sequence order by the change feed, pruned after the retention period.
+CREATE TABLE IF NOT EXISTS employee_change (
+    sequence bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id integer NOT NULL,
+    operation varchar(16) NOT NULL,
+    changed_at timestamp NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_employee_change_changed_at ON employee_change (changed_at);
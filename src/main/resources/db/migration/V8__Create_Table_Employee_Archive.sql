@@ -0,0 +1,16 @@
+-- Archive of the cold employees, those not updated for a long time, moved out of the employee table by the archival
+-- job. Employees are archived in chunks: one row per chunk, holding its employees as gzipped JSON lines, which
+-- compress far better together than one by one. employee_archive_entry tells which chunk holds each employee.
+CREATE TABLE IF NOT EXISTS employee_archive (
+    id bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_count integer NOT NULL,
+    archived_at timestamp NOT NULL,
+    employees bytea NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS employee_archive_entry (
+    employee_id integer NOT NULL PRIMARY KEY,
+    archive_id bigint NOT NULL REFERENCES employee_archive (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_employee_archive_entry_archive_id ON employee_archive_entry (archive_id);
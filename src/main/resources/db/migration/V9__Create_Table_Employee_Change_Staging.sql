@@ -0,0 +1,16 @@
+-- Changes are staged in employee_change_staging, in the transaction of the change, then moved to employee_change by
+-- a relay holding the lock row of employee_change_relay. Sequence numbers are thus allocated by one writer at a time,
+-- after the changes are committed: a change never becomes visible after one with a higher sequence number, however
+-- long its transaction took to commit.
+CREATE TABLE IF NOT EXISTS employee_change_staging (
+    id bigint NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    employee_id integer NOT NULL,
+    operation varchar(16) NOT NULL,
+    changed_at timestamp NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS employee_change_relay (
+    id integer NOT NULL PRIMARY KEY
+);
+
+INSERT INTO employee_change_relay (id) VALUES (1);
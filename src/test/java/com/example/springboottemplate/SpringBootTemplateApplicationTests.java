@@ -1,13 +1,21 @@
 package com.example.springboottemplate;
 
 import com.example.springboottemplate.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 class SpringBootTemplateApplicationTests {
 
 	@Test
@@ -22,4 +30,26 @@ class SpringBootTemplateApplicationTests {
 		assertEquals(20, employeeService.getAllEmployees().size());
 	}
 
+	@Test
+	void givenInitialDb_whenGetEmployeeByIdTwice_shouldReturnCachedEmployee() {
+		assertSame(employeeService.getEmployeeById(2), employeeService.getEmployeeById(2));
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void givenInitialDb_whenGetEmployeePage_shouldRecordQueriesOfTheRequest() throws Exception {
+		mockMvc.perform(get("/employee/v1/page").param("size", "5"))
+				.andExpect(status().isOk());
+
+		assertEquals(1, meterRegistry.get("http.server.requests.queries").tag("uri", "/employee/v1/page")
+				.summary().max());
+		assertTrue(meterRegistry.get("jdbc.query").tag("type", "select").timer().count() > 0);
+		assertTrue(meterRegistry.get("employee.service").tag("method", "getEmployeePage").timer().count() > 0);
+	}
+
 }
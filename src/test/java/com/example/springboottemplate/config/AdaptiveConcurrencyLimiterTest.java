@@ -0,0 +1,89 @@
+package com.example.springboottemplate.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void givenLimitReached_whenTryAcquire_shouldReject() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.5, 2.0, 100);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release();
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void givenFastRequestsAtTheLimit_whenRelease_shouldIncreaseLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 0.5, 2.0, 100);
+
+        fillAndRelease(limiter, 1);
+        assertEquals(4, limiter.getLimit());
+        fillAndRelease(limiter, 2);
+        assertEquals(5, limiter.getLimit());
+        fillAndRelease(limiter, 100);
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void givenFastRequestsBelowTheLimit_whenRelease_shouldKeepLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 0.5, 2.0, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release("GET /", 0, 10 * MILLIS);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void givenSlowRequests_whenRelease_shouldDecreaseLimitOncePerRoundTrip() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 10, 0.5, 2.0, 100);
+        limiter.tryAcquire();
+        limiter.release("GET /", 0, 10 * MILLIS);
+
+        // Both started before the first decrease, only one of them counts
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.release("GET /", 20 * MILLIS, 50 * MILLIS);
+        limiter.release("GET /", 25 * MILLIS, 60 * MILLIS);
+        assertEquals(4, limiter.getLimit());
+
+        limiter.tryAcquire();
+        limiter.release("GET /", 55 * MILLIS, 90 * MILLIS);
+        assertEquals(2, limiter.getLimit());
+
+        // Slow compared to GET /, but not to its own endpoint
+        limiter.tryAcquire();
+        limiter.release("GET /export", 100 * MILLIS, 200 * MILLIS);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * Admits as many requests as the limit allows, then releases them, all as fast as the first one
+     */
+    private static void fillAndRelease(AdaptiveConcurrencyLimiter limiter, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int j = 0; j < admitted; j++) {
+                limiter.release("GET /", 0, 10 * MILLIS);
+            }
+        }
+    }
+}
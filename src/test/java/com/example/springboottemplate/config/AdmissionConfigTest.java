@@ -0,0 +1,78 @@
+package com.example.springboottemplate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Spaces of the endpoint keys are escaped, the properties are parsed like a .properties file
+ */
+@SpringBootTest(properties = {
+        "employee.admission.enabled=true",
+        "employee.admission.trusted-proxies=127.0.0.1",
+        "employee.admission.endpoints[GET\\ /employee/v1/].rate=0.01",
+        "employee.admission.endpoints[GET\\ /employee/v1/].burst=2",
+        "employee.admission.endpoints[GET\\ /employee/v1/{id}].rate=0.01",
+        "employee.admission.endpoints[GET\\ /employee/v1/{id}].burst=2"})
+@AutoConfigureMockMvc
+class AdmissionConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void givenEndpointRateLimit_whenClientExceedsIt_shouldAnswer429WithRetryAfter() throws Exception {
+        mockMvc.perform(get("/employee/v1/").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/").header("X-Client-Id", "greedy"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+
+        // Other endpoints and other clients are not affected
+        mockMvc.perform(get("/employee/v1/1").header("X-Client-Id", "greedy")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/").header("X-Client-Id", "polite")).andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.get("employee.admission.rejected")
+                .tag("endpoint", "GET /employee/v1/")
+                .tag("reason", "endpoint-rate")
+                .counter().count());
+        assertEquals(0, meterRegistry.get("employee.admission.concurrency.in.flight").gauge().value());
+    }
+
+    @Test
+    void givenUntrustedAddress_whenClientChangesItsId_shouldStillShareItsBucket() throws Exception {
+        mockMvc.perform(get("/employee/v1/1").header("X-Client-Id", "a").with(from("192.0.2.1"))).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/1").header("X-Client-Id", "b").with(from("192.0.2.1"))).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/1").header("X-Client-Id", "c").with(from("192.0.2.1")))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void givenTrustedProxy_whenNoClientId_shouldTellClientsApartByForwardedAddress() throws Exception {
+        mockMvc.perform(get("/employee/v1/1").header("X-Forwarded-For", "198.51.100.1, 127.0.0.1")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/1").header("X-Forwarded-For", "198.51.100.1")).andExpect(status().isOk());
+        mockMvc.perform(get("/employee/v1/1").header("X-Forwarded-For", "198.51.100.1"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/employee/v1/1").header("X-Forwarded-For", "198.51.100.2")).andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
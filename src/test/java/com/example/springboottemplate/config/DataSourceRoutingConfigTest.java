@@ -0,0 +1,106 @@
+package com.example.springboottemplate.config;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The replica is the primary database itself, reached through its own pool, so the reads succeed and the pool
+ * metrics tell which of them went to the replica. Health checks, which take a replica connection too, are kept out of
+ * the way.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "employee.datasource.replica-urls=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "employee.datasource.health-check-interval=1h"})
+@AutoConfigureMockMvc
+class DataSourceRoutingConfigTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void givenReplica_whenReadOnlyTransaction_shouldReadFromTheReplica() {
+        long replicaReads = replicaConnections();
+
+        assertEquals(20, employeeService.getAllEmployees().size());
+
+        assertTrue(replicaConnections() > replicaReads);
+    }
+
+    @Test
+    void givenWriteRequest_whenReadingWithinTheWindow_shouldReadFromThePrimary() throws Exception {
+        Cookie readPrimary = mockMvc.perform(post("/employee/v1/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Jane\", \"lastName\": \"Doe\"}"))
+                .andExpect(cookie().maxAge(ReadYourWritesFilter.COOKIE_NAME, 5))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        long replicaReads = replicaConnections();
+
+        mockMvc.perform(get("/employee/v1/page").cookie(readPrimary))
+                .andExpect(status().isOk());
+
+        assertEquals(replicaReads, replicaConnections());
+    }
+
+    @Test
+    void givenWriteRequest_whenStreamingWithinTheWindow_shouldReadFromThePrimary() throws Exception {
+        Cookie readPrimary = mockMvc.perform(post("/employee/v1/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Jane\", \"lastName\": \"Doe\"}"))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        long replicaReads = replicaConnections();
+
+        MvcResult result = mockMvc.perform(get("/employee/v1/stream").accept(MediaType.APPLICATION_NDJSON).cookie(readPrimary))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        assertEquals(replicaReads, replicaConnections());
+    }
+
+    @Test
+    void givenReplica_whenReadOnlyTransaction_shouldNotPutEmployeesInTheSecondLevelCache() {
+        Cache secondLevelCache = entityManagerFactory.getCache();
+        secondLevelCache.evictAll();
+
+        assertEquals(5, employeeService.getEmployeePage(null, 5).getEmployees().size());
+        assertFalse(secondLevelCache.contains(Employee.class, 1));
+
+        employeeService.getEmployeeById(1);
+        assertTrue(secondLevelCache.contains(Employee.class, 1));
+    }
+
+    private long replicaConnections() {
+        return meterRegistry.get("hikaricp.connections.usage").tag("pool", "replica-1").timer().count();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.springboottemplate.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.exception.FlywayValidateException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A history that drifted from the migrations, which the validation rejects, tells whether it was skipped
+ */
+class FlywayConfigTest {
+
+    private Flyway flyway;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:flyway-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        flyway = Flyway.configure().dataSource(dataSource).load();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void givenNoHistory_whenAppliedChecksum_shouldReturnNull() {
+        assertNull(FlywayConfig.appliedChecksum(flyway.getConfiguration()));
+    }
+
+    @Test
+    void givenNoValidatedChecksum_whenMigrate_shouldValidate() {
+        new FlywayConfig().validatedChecksumMigrationStrategy("").migrate(flyway);
+        drift();
+
+        assertThrows(FlywayValidateException.class,
+                () -> new FlywayConfig().validatedChecksumMigrationStrategy("").migrate(flyway));
+    }
+
+    @Test
+    void givenValidatedChecksumOfTheHistory_whenMigrate_shouldSkipTheValidation() {
+        new FlywayConfig().validatedChecksumMigrationStrategy("").migrate(flyway);
+        drift();
+        String checksum = FlywayConfig.appliedChecksum(flyway.getConfiguration());
+
+        assertDoesNotThrow(() -> new FlywayConfig().validatedChecksumMigrationStrategy(checksum).migrate(flyway));
+        assertEquals(checksum, FlywayConfig.appliedChecksum(flyway.getConfiguration()));
+    }
+
+    @Test
+    void givenValidatedChecksumOfAnotherHistory_whenMigrate_shouldValidate() {
+        new FlywayConfig().validatedChecksumMigrationStrategy("").migrate(flyway);
+        String validated = FlywayConfig.appliedChecksum(flyway.getConfiguration());
+        drift();
+
+        assertNotEquals(validated, FlywayConfig.appliedChecksum(flyway.getConfiguration()));
+        assertThrows(FlywayValidateException.class,
+                () -> new FlywayConfig().validatedChecksumMigrationStrategy(validated).migrate(flyway));
+    }
+
+    /**
+     * Changes the recorded checksum of a migration, as if it was edited after being applied
+     */
+    private void drift() {
+        jdbcTemplate.update("UPDATE \"flyway_schema_history\" SET \"checksum\" = \"checksum\" + 1 WHERE \"version\" = '1'");
+    }
+}
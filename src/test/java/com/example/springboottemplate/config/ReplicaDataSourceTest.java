@@ -0,0 +1,116 @@
+package com.example.springboottemplate.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class ReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replica1Connection = mock(Connection.class);
+
+    private final Connection replica2Connection = mock(Connection.class);
+
+    private ReplicaDataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        replicaDataSource = new ReplicaDataSource(primary, List.of(replica1, replica2), List.of("replica-1", "replica-2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaDataSource.clearReadFromPrimary();
+    }
+
+    @Test
+    void givenReadFromPrimary_whenPropagateReadFromPrimary_shouldReadFromPrimaryOnTheOtherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ReplicaDataSource.readFromPrimary();
+            Runnable task = ReplicaDataSource.propagateReadFromPrimary(() -> assertTrue(ReplicaDataSource.isReadFromPrimary()));
+            ReplicaDataSource.clearReadFromPrimary();
+            executor.submit(task).get();
+            // Cleared once the task is over, the pooled thread serves other requests
+            assertFalse(executor.submit(ReplicaDataSource::isReadFromPrimary).get());
+
+            // Run on the thread that submitted it, which keeps reading from the primary
+            ReplicaDataSource.readFromPrimary();
+            ReplicaDataSource.propagateReadFromPrimary(() -> { }).run();
+            assertTrue(ReplicaDataSource.isReadFromPrimary());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenHealthyReplicas_whenGetConnection_shouldAlternateBetweenThem() throws SQLException {
+        assertSame(replica1Connection, replicaDataSource.getConnection());
+        assertSame(replica2Connection, replicaDataSource.getConnection());
+        assertSame(replica1Connection, replicaDataSource.getConnection());
+    }
+
+    @Test
+    void givenUnreachableReplica_whenGetConnection_shouldSkipItUntilItIsHealthyAgain() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("down"));
+
+        assertSame(replica2Connection, replicaDataSource.getConnection());
+        assertSame(replica2Connection, replicaDataSource.getConnection());
+        assertEquals(Map.of("replica-1", false, "replica-2", true), replicaDataSource.getReplicaHealth());
+
+        doReturn(replica1Connection).when(replica1).getConnection();
+        when(replica1Connection.isValid(2)).thenReturn(true);
+        when(replica2Connection.isValid(2)).thenReturn(true);
+        replicaDataSource.checkHealth();
+
+        assertEquals(Map.of("replica-1", true, "replica-2", true), replicaDataSource.getReplicaHealth());
+    }
+
+    @Test
+    void givenNoReachableReplica_whenGetConnection_shouldUseThePrimary() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("down"));
+        when(replica2.getConnection()).thenThrow(new SQLException("down"));
+
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+    }
+
+    @Test
+    void givenReadFromPrimary_whenGetConnection_shouldUseThePrimary() throws SQLException {
+        ReplicaDataSource.readFromPrimary();
+
+        assertSame(primaryConnection, replicaDataSource.getConnection());
+    }
+}
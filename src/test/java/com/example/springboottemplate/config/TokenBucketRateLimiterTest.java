@@ -0,0 +1,61 @@
+package com.example.springboottemplate.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(Duration.ofMinutes(1), now::get);
+
+    @Test
+    void givenBurst_whenTryAcquire_shouldAdmitBurstThenWaitForRefill() {
+        TokenBucketRateLimiter.RateLimit limit = new TokenBucketRateLimiter.RateLimit(2, 3);
+
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.tryAcquire("client", limit));
+
+        // Other clients have their own bucket
+        assertEquals(0, rateLimiter.tryAcquire("other", limit));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rateLimiter.tryAcquire("client", limit));
+        assertEquals(2, rateLimiter.size());
+    }
+
+    @Test
+    void givenIdleClient_whenTryAcquire_shouldNotRefillBeyondBurst() {
+        TokenBucketRateLimiter.RateLimit limit = new TokenBucketRateLimiter.RateLimit(10, 2);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire("client", limit));
+    }
+
+    @Test
+    void givenRejectedRequest_whenRelease_shouldGiveTheTokenBack() {
+        TokenBucketRateLimiter.RateLimit limit = new TokenBucketRateLimiter.RateLimit(1, 1);
+
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        rateLimiter.release("client");
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire("client", limit));
+
+        // Never beyond burst
+        rateLimiter.release("client");
+        rateLimiter.release("client");
+        assertEquals(0, rateLimiter.tryAcquire("client", limit));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rateLimiter.tryAcquire("client", limit));
+    }
+}
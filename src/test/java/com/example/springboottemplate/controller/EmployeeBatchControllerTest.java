@@ -0,0 +1,91 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.dto.BatchItemResult;
+import com.example.springboottemplate.dto.BatchItemStatus;
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.service.EmployeeBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@DisabledInAotMode
+@WebMvcTest(EmployeeBatchController.class)
+public class EmployeeBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeBatchService employeeBatchService;
+
+    private ObjectMapper objMapper = new ObjectMapper();
+
+    private final BatchResult batchResult = new BatchResult(2, 0, List.of(
+            new BatchItemResult(0, 1, BatchItemStatus.CREATED, null),
+            new BatchItemResult(1, 2, BatchItemStatus.CREATED, null)));
+
+    @Test
+    void givenJsonArray_whenSaveEmployees_shouldReadEveryEmployee() throws Exception {
+        List<String> firstNames = new ArrayList<>();
+        when(employeeBatchService.createEmployees(any())).thenAnswer(invocation -> {
+            Iterator<Employee> employees = invocation.getArgument(0);
+            employees.forEachRemaining(employee -> firstNames.add(employee.getFirstName()));
+            return batchResult;
+        });
+
+        mockMvc.perform(post("/employee/v1/batch/")
+                        .contentType("application/json")
+                        .content("[{\"firstName\":\"John\"},{\"firstName\":\"Jane\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objMapper.writeValueAsString(batchResult)));
+        assertEquals(List.of("John", "Jane"), firstNames);
+    }
+
+    @Test
+    void givenNdjson_whenUpdateEmployees_shouldReadEveryEmployee() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        when(employeeBatchService.updateEmployees(any())).thenAnswer(invocation -> {
+            Iterator<Employee> employees = invocation.getArgument(0);
+            employees.forEachRemaining(employee -> ids.add(employee.getId()));
+            return batchResult;
+        });
+
+        mockMvc.perform(put("/employee/v1/batch/")
+                        .contentType("application/x-ndjson")
+                        .content("{\"id\":1,\"firstName\":\"John\"}\n{\"id\":2,\"firstName\":\"Jane\"}\n"))
+                .andExpect(status().isOk());
+        assertEquals(List.of(1, 2), ids);
+    }
+
+    @Test
+    void givenIds_whenDeleteEmployeesById_shouldReadEveryId() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        when(employeeBatchService.deleteEmployeesById(any())).thenAnswer(invocation -> {
+            Iterator<Integer> employeeIds = invocation.getArgument(0);
+            employeeIds.forEachRemaining(ids::add);
+            return batchResult;
+        });
+
+        mockMvc.perform(delete("/employee/v1/batch/")
+                        .contentType("application/json")
+                        .content("[1, 2]"))
+                .andExpect(status().isOk());
+        assertEquals(List.of(1, 2), ids);
+    }
+}
@@ -1,27 +1,48 @@
 package com.example.springboottemplate.controller;
 
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
+import com.example.springboottemplate.dto.EmployeeMultiGetResult;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.dto.EmployeeProjectionPage;
+import com.example.springboottemplate.dto.EmployeeSearchCriteria;
 import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.EmployeeVersionConflictException;
 import com.example.springboottemplate.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+@DisabledInAotMode
 @WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTest {
 
@@ -57,6 +78,7 @@ public class EmployeeControllerTest {
         employee1.setDateOfBirth(LocalDate.of(1990, 1, 1));
         employee1.setCreatedAt(LocalDateTime.of(2024, 6, 5, 12, 0, 0));
         employee1.setUpdatedAt(LocalDateTime.of(2024, 6, 5, 12, 0, 0));
+        employee1.setVersion(0);
 
         employee2 = new Employee();
         employee2.setId(2);
@@ -76,6 +98,8 @@ public class EmployeeControllerTest {
 
     @Test
     void whenGetAllEmployees_shouldReturn200() throws Exception {
+        when(employeeService.getEmployeeCollectionVersion())
+                .thenReturn(new EmployeeCollectionVersion(2L, employee1.getUpdatedAt()));
         when(employeeService.getAllEmployees()).thenReturn(employeeList);
         mockMvc.perform(get("/employee/v1/")
                         .contentType("application/json"))
@@ -83,6 +107,150 @@ public class EmployeeControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void givenUnchangedCollection_whenGetAllEmployees_shouldReturnNotModifiedWithoutReadingEmployees() throws Exception {
+        when(employeeService.getEmployeeCollectionVersion())
+                .thenReturn(new EmployeeCollectionVersion(2L, employee1.getUpdatedAt()));
+        String eTag = mockMvc.perform(get("/employee/v1/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/employee/v1/")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, times(1)).getAllEmployees();
+
+        when(employeeService.getEmployeeCollectionVersion())
+                .thenReturn(new EmployeeCollectionVersion(1L, employee1.getUpdatedAt()));
+        mockMvc.perform(get("/employee/v1/")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGetEmployeesByIds_shouldReturnEmployeesAndMissingIds() throws Exception {
+        EmployeeMultiGetResult result = new EmployeeMultiGetResult(List.of(employee2, employee1), List.of(3));
+        when(employeeService.getEmployeesByIds(List.of(2, 3, 1))).thenReturn(result);
+        mockMvc.perform(get("/employee/v1/by-ids")
+                        .param("ids", "2,3,1"))
+                .andExpect(content().json(objMapper.writeValueAsString(result), true))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenPostEmployeesByIds_shouldReturnEmployeesAndMissingIds() throws Exception {
+        EmployeeMultiGetResult result = new EmployeeMultiGetResult(List.of(employee2, employee1), List.of(3));
+        when(employeeService.getEmployeesByIds(List.of(2, 3, 1))).thenReturn(result);
+        mockMvc.perform(post("/employee/v1/by-ids")
+                        .contentType("application/json")
+                        .content("[2, 3, 1]"))
+                .andExpect(content().json(objMapper.writeValueAsString(result), true))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGetEmployeePage_shouldReturnEmployeesAndNextCursor() throws Exception {
+        EmployeePage employeePage = new EmployeePage(employeeList, "Mg");
+        when(employeeService.getEmployeePage("MQ", 2)).thenReturn(employeePage);
+        mockMvc.perform(get("/employee/v1/page")
+                        .param("cursor", "MQ")
+                        .param("size", "2")
+                        .contentType("application/json"))
+                .andExpect(content().json(objMapper.writeValueAsString(employeePage)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenSearchEmployees_shouldBindCriteriaAndReturnPage() throws Exception {
+        EmployeePage employeePage = new EmployeePage(employeeList, null);
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria("Software Engineer", "Do", 20, 40,
+                LocalDate.of(2023, 1, 1), null, "age,desc");
+        when(employeeService.searchEmployees(criteria, null, 2)).thenReturn(employeePage);
+        mockMvc.perform(get("/employee/v1/search")
+                        .param("designation", "Software Engineer")
+                        .param("lastNamePrefix", "Do")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("joinedFrom", "2023-01-01")
+                        .param("sort", "age,desc")
+                        .param("size", "2"))
+                .andExpect(content().json(objMapper.writeValueAsString(employeePage)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenSearchEmployeesWithFields_shouldReturnOnlyThoseFields() throws Exception {
+        EmployeeProjectionPage employeePage = new EmployeeProjectionPage(
+                List.of(Map.of("id", 1, "lastName", "Doe")), "MQ");
+        when(employeeService.searchEmployees(new EmployeeSearchCriteria(), null, null, List.of("lastName")))
+                .thenReturn(employeePage);
+        mockMvc.perform(get("/employee/v1/search")
+                        .param("fields", "lastName"))
+                .andExpect(content().json("{\"employees\":[{\"id\":1,\"lastName\":\"Doe\"}],\"nextCursor\":\"MQ\"}", true))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenGetAllEmployeesWithUnknownField_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/employee/v1/")
+                        .param("fields", "id,salary"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenStreamAllEmployeesAsNdjson_shouldWriteOneEmployeePerLine() throws Exception {
+        streamEmployeeList();
+        MvcResult mvcResult = mockMvc.perform(get("/employee/v1/stream")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(objMapper.writeValueAsString(employee1) + "\n" + objMapper.writeValueAsString(employee2)));
+    }
+
+    @Test
+    void whenStreamAllEmployeesAsJson_shouldWriteJsonArray() throws Exception {
+        streamEmployeeList();
+        MvcResult mvcResult = mockMvc.perform(get("/employee/v1/stream")
+                        .accept("application/json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objMapper.writeValueAsString(employeeList)));
+    }
+
+    @Test
+    void whenStreamAllEmployeesAsCbor_shouldWriteCborArray() throws Exception {
+        streamEmployeeList();
+        MvcResult mvcResult = mockMvc.perform(get("/employee/v1/stream")
+                        .accept("application/cbor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(employeeList, List.of(new CBORMapper().findAndRegisterModules().readValue(body, Employee[].class)));
+    }
+
+    @Test
+    void givenSmileAcceptHeader_whenGetAllEmployees_shouldReturnSmile() throws Exception {
+        when(employeeService.getEmployeeCollectionVersion()).thenReturn(new EmployeeCollectionVersion(2L, employee1.getUpdatedAt()));
+        when(employeeService.getAllEmployees()).thenReturn(employeeList);
+        byte[] body = mockMvc.perform(get("/employee/v1/")
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(employeeList, List.of(new SmileMapper().findAndRegisterModules().readValue(body, Employee[].class)));
+    }
+
     @Test
     void givenValidId_whenGetEmployeeById_shouldReturnEmployee() throws Exception {
         when(employeeService.getEmployeeById(1)).thenReturn(employee1);
@@ -92,6 +260,75 @@ public class EmployeeControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void givenUnchangedEmployee_whenGetEmployeeById_shouldReturnNotModified() throws Exception {
+        when(employeeService.getEmployeeById(1)).thenReturn(employee1);
+        String eTag = mockMvc.perform(get("/employee/v1/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/employee/v1/1")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        employee1.setVersion(1);
+        employee1.setUpdatedAt(employee1.getUpdatedAt().plusSeconds(1));
+        mockMvc.perform(get("/employee/v1/1")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void givenIfMatch_whenPatchEmployee_shouldApplyConvertedFieldsAndReturnNewETag() throws Exception {
+        when(employeeService.patchEmployee(1, 3, Map.of("designation", "Manager", "joinedOn", LocalDate.of(2024, 1, 2))))
+                .thenReturn(4);
+        mockMvc.perform(patch("/employee/v1/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/json")
+                        .content("{\"designation\":\"Manager\",\"joinedOn\":\"2024-01-02\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    void givenStaleVersion_whenPatchEmployee_shouldReturnConflict() throws Exception {
+        when(employeeService.patchEmployee(1, 2, Map.of("age", 31)))
+                .thenThrow(new EmployeeVersionConflictException(1));
+        mockMvc.perform(patch("/employee/v1/1")
+                        .contentType("application/json")
+                        .content("{\"age\":31,\"version\":2}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void givenInvalidPatch_whenPatchEmployee_shouldBeRejected() throws Exception {
+        mockMvc.perform(patch("/employee/v1/1")
+                        .contentType("application/json")
+                        .content("{\"age\":31}"))
+                .andExpect(status().isPreconditionRequired());
+        mockMvc.perform(patch("/employee/v1/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/json")
+                        .content("{\"createdAt\":\"2024-01-02T00:00:00\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/employee/v1/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/json")
+                        .content("{\"firstName\":\" \"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/employee/v1/1")
+                        .contentType("application/json")
+                        .content("{\"age\":31,\"version\":\"abc\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/employee/v1/1")
+                        .contentType("application/json")
+                        .content("{\"age\":31,\"version\":2.5}"))
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).patchEmployee(any(), any(), any());
+    }
+
     @Test
     void givenValidPayload_whenSaveEmployee_thenReturnsEmployee() throws Exception {
         Employee newEmployee = new Employee();
@@ -156,4 +393,12 @@ public class EmployeeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Deleted employee successfully"));
     }
+
+    @SuppressWarnings("unchecked")
+    private void streamEmployeeList() {
+        doAnswer(invocation -> {
+            employeeList.forEach(invocation.getArgument(0, Consumer.class));
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+    }
 }
\ No newline at end of file
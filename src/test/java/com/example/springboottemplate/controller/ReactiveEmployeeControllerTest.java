@@ -0,0 +1,101 @@
+package com.example.springboottemplate.controller;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.EmployeeVersionConflictException;
+import com.example.springboottemplate.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static org.mockito.Mockito.when;
+
+@DisabledInAotMode
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService reactiveEmployeeService;
+
+    private Employee employee1;
+
+    private Employee employee2;
+
+    @BeforeEach
+    void setUp() {
+        employee1 = new Employee();
+        employee1.setId(1);
+        employee1.setFirstName("John");
+        employee1.setLastName("Doe");
+        employee1.setJoinedOn(LocalDate.of(2023, 6, 5));
+
+        employee2 = new Employee();
+        employee2.setId(2);
+        employee2.setFirstName("Jane");
+        employee2.setLastName("Doe");
+        employee2.setJoinedOn(LocalDate.of(2023, 6, 5));
+    }
+
+    @Test
+    void whenGetAllEmployeesAsNdjson_shouldStreamEmployees() {
+        when(reactiveEmployeeService.getAllEmployees()).thenReturn(Flux.just(employee1, employee2));
+        webTestClient.get().uri("/employee/v1/")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class).contains(employee1, employee2);
+    }
+
+    @Test
+    void givenValidId_whenGetEmployeeById_shouldReturnEmployee() {
+        when(reactiveEmployeeService.getEmployeeById(1)).thenReturn(Mono.just(employee1));
+        webTestClient.get().uri("/employee/v1/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Employee.class).isEqualTo(employee1);
+    }
+
+    @Test
+    void givenInvalidPayload_whenSaveEmployee_thenReturnsBadRequest() {
+        Employee newEmployee = new Employee();
+        newEmployee.setFirstName("");
+        webTestClient.post().uri("/employee/v1/")
+                .bodyValue(newEmployee)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void givenStaleVersion_whenUpdateEmployee_shouldReturnConflict() {
+        employee1.setVersion(1);
+        when(reactiveEmployeeService.updateEmployee(employee1))
+                .thenReturn(Mono.error(new EmployeeVersionConflictException(1)));
+        webTestClient.put().uri("/employee/v1/")
+                .bodyValue(employee1)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void givenValidId_whenDeleteEmployeeById_shouldReturnCorrectMessage() {
+        when(reactiveEmployeeService.deleteEmployeeById(1)).thenReturn(Mono.empty());
+        webTestClient.delete().uri("/employee/v1/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Deleted employee successfully");
+    }
+}
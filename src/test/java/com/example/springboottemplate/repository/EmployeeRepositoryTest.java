@@ -1,24 +1,59 @@
 package com.example.springboottemplate.repository;
 
+import com.example.springboottemplate.config.SecondLevelCacheConfig;
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.dto.EmployeeCollectionVersion;
 import com.example.springboottemplate.entity.Employee;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
+import static com.example.springboottemplate.repository.EmployeeSpecifications.ageBetween;
+import static com.example.springboottemplate.repository.EmployeeSpecifications.lastNameStartsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SecondLevelCacheConfig.class, EmployeeChangeRepository.class, EmployeeArchiveRepository.class})
 public class EmployeeRepositoryTest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Autowired
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
     @Test
     void givenPreInsertedDataInDatabase_whenGetAllEmployees_ThenReturn20Records() {
         // Given
@@ -43,6 +78,51 @@ public class EmployeeRepositoryTest {
         assertEquals("Blayne", employee.getFirstName());
     }
 
+    @Test
+    void givenPreInsertedDataInDatabase_whenGetEmployeesAfterId_ThenReturnNextRecordsInIdOrder() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        List<Employee> employeeList = employeeRepository.findByIdGreaterThanOrderByIdAsc(18, Limit.of(5));
+
+        // Then
+        assertEquals(2, employeeList.size());
+        assertEquals(19, employeeList.get(0).getId());
+        assertEquals(20, employeeList.get(1).getId());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenFindAllByIdInChunks_ThenReturnEmployeesInIdsOrder() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        List<Employee> employeeList = employeeRepository.findAllByIdInChunks(List.of(5, 21, 1, 3), 2);
+
+        // Then
+        assertEquals(4, employeeList.size());
+        assertEquals(5, employeeList.get(0).getId());
+        assertNull(employeeList.get(1));
+        assertEquals(1, employeeList.get(2).getId());
+        assertEquals(3, employeeList.get(3).getId());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenStreamAllEmployees_ThenStream20Records() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        long count;
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            count = employees.count();
+        }
+
+        // Then
+        assertEquals(20, count);
+    }
+
     @Test
     void givenEmployeeObject_whenSaveEmployee_ThenReturnSavedEmployee() {
         // Given
@@ -89,4 +169,330 @@ public class EmployeeRepositoryTest {
         // Then
         assertEquals(19, employeeRepository.findAll().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void givenEmployeeObjects_whenInsertAllInBatch_ThenSetGeneratedIds() {
+        // Given
+        Employee john = new Employee();
+        john.setFirstName("John");
+        john.setCreatedAt(LocalDateTime.now());
+        john.setUpdatedAt(LocalDateTime.now());
+        Employee jane = new Employee();
+        jane.setFirstName("Jane");
+        jane.setJoinedOn(LocalDate.of(2023, 6, 5));
+        jane.setCreatedAt(LocalDateTime.now());
+        jane.setUpdatedAt(LocalDateTime.now());
+
+        // When
+        employeeRepository.insertAllInBatch(List.of(john, jane));
+
+        // Then
+        assertNotNull(john.getId());
+        assertEquals("Jane", employeeRepository.findById(jane.getId()).get().getFirstName());
+        assertEquals(22, employeeRepository.count());
+    }
+
+    @Test
+    void givenEmployeeObjects_whenImportAll_ThenInsertThemInChunks() {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName("Imported" + i);
+            employee.setCreatedAt(LocalDateTime.now());
+            employee.setUpdatedAt(LocalDateTime.now());
+            employees.add(employee);
+        }
+
+        // When
+        long imported = employeeRepository.importAll(employees.iterator(), 2);
+
+        // Then
+        assertEquals(5, imported);
+        assertEquals(25, employeeRepository.count());
+        employeeChangeRepository.relay(10);
+        assertEquals(5, employeeChangeRepository.findSince(0, 10).stream()
+                .filter(change -> change.getOperation() == ChangeOperation.CREATED)
+                .count());
+    }
+
+    @Test
+    void givenEmployeeObjects_whenUpdateAllInBatch_ThenReturnUpdateCounts() {
+        // Given
+        Employee employee = employeeRepository.findById(1).get();
+        employee.setFirstName("Blayne1");
+        Employee missingEmployee = new Employee();
+        missingEmployee.setId(100);
+        missingEmployee.setFirstName("Nobody");
+
+        // When
+        int[] updateCounts = employeeRepository.updateAllInBatch(List.of(employee, missingEmployee));
+
+        // Then
+        assertArrayEquals(new int[]{1, 0}, updateCounts);
+    }
+
+    @Test
+    void givenEmployeeIds_whenDeleteAllInBatch_ThenReturnDeleteCounts() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        int[] deleteCounts = employeeRepository.deleteAllInBatch(List.of(1, 2, 100));
+
+        // Then
+        assertArrayEquals(new int[]{1, 1, 0}, deleteCounts);
+        assertEquals(18, employeeRepository.count());
+        // Only the employees actually deleted are in the change feed
+        employeeChangeRepository.relay(10);
+        assertEquals(List.of(1, 2), employeeChangeRepository.findSince(0, 10).stream()
+                .filter(change -> change.getOperation() == ChangeOperation.DELETED)
+                .map(EmployeeChange::getEmployeeId)
+                .toList());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenSearchByLastNamePrefix_ThenReturnMatchingRecordsInLastNameOrder() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        List<Employee> employeeList = employeeRepository.search(lastNameStartsWith("CAL"), EmployeeSortField.LAST_NAME,
+                Sort.Direction.ASC, null, null, Limit.of(10));
+
+        // Then
+        assertEquals(List.of("Calleja", "Callendar"), employeeList.stream().map(Employee::getLastName).toList());
+        assertEquals(0, employeeRepository.search(lastNameStartsWith("%"), EmployeeSortField.ID,
+                Sort.Direction.ASC, null, null, Limit.of(10)).size());
+    }
+
+    @Test
+    void givenEmployeesWithNullAge_whenSearchPageByPageSortedOnAgeDesc_ThenVisitEveryRecordOnceInOrder() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            Employee employee = new Employee();
+            employee.setFirstName("Ageless" + i);
+            employeeRepository.save(employee);
+        }
+        Employee sameAge = new Employee();
+        sameAge.setFirstName("Same age");
+        sameAge.setAge(72);
+        employeeRepository.save(sameAge);
+
+        // When
+        List<Employee> visited = new ArrayList<>();
+        List<Employee> page = employeeRepository.search(ageBetween(null, null), EmployeeSortField.AGE,
+                Sort.Direction.DESC, null, null, Limit.of(3));
+        while (!page.isEmpty()) {
+            visited.addAll(page);
+            Employee last = page.get(page.size() - 1);
+            page = employeeRepository.search(ageBetween(null, null), EmployeeSortField.AGE,
+                    Sort.Direction.DESC, last.getAge(), last.getId(), Limit.of(3));
+        }
+
+        // Then
+        List<Employee> expected = employeeRepository.findAll().stream()
+                .sorted(Comparator.comparing(Employee::getAge, Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+                        .thenComparing(Employee::getId).reversed())
+                .toList();
+        assertEquals(24, visited.size());
+        assertEquals(expected.stream().map(Employee::getId).toList(), visited.stream().map(Employee::getId).toList());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenSearchByAgeRange_ThenReturnRecordsWithinBounds() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        List<Employee> employeeList = employeeRepository.search(Specification.where(ageBetween(45, 50)),
+                EmployeeSortField.AGE, Sort.Direction.ASC, null, null, Limit.of(20));
+
+        // Then
+        assertEquals(List.of(45, 46, 47, 48, 50), employeeList.stream().map(Employee::getAge).toList());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenSearchAttributes_ThenReturnOnlyThoseAttributes() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        List<Map<String, Object>> employeeList = employeeRepository.searchAttributes(lastNameStartsWith("cal"),
+                EmployeeSortField.ID, Sort.Direction.ASC, null, null, Limit.of(10), List.of("id", "lastName", "joinedOn"));
+
+        // Then
+        assertEquals(List.of(
+                Map.of("id", 1, "lastName", "Calleja", "joinedOn", LocalDate.of(2023, 6, 18)),
+                Map.of("id", 16, "lastName", "Callendar", "joinedOn", LocalDate.of(2024, 3, 12))), employeeList);
+        assertEquals(List.of("id", "lastName", "joinedOn"), List.copyOf(employeeList.get(0).keySet()));
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenFindCollectionVersion_ThenReturnCountAndLastUpdate() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        EmployeeCollectionVersion version = employeeRepository.findCollectionVersion();
+
+        // Then
+        assertEquals(20, version.getCount());
+        assertEquals(LocalDateTime.of(2024, 3, 14, 2, 40, 24), version.getLastUpdatedAt());
+    }
+
+    @Test
+    void givenEmployeeVersion_whenUpdateAttributes_ThenUpdateOnlyThatVersion() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration, all at version 0
+
+        // When
+        int updated = employeeRepository.updateAttributes(1, 0, Map.of("designation", "Manager"), LocalDateTime.now());
+        int stale = employeeRepository.updateAttributes(1, 0, Map.of("designation", "Director"), LocalDateTime.now());
+
+        // Then
+        assertEquals(1, updated);
+        assertEquals(0, stale);
+        Employee employee = employeeRepository.findById(1).get();
+        assertEquals("Manager", employee.getDesignation());
+        assertEquals(1, employee.getVersion());
+        assertEquals("Calleja", employee.getLastName());
+    }
+
+    @Test
+    void givenPreInsertedDataInDatabase_whenFindById_ThenCacheEmployeeInTheSecondLevelCache() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+
+        // When
+        employeeRepository.findById(3);
+        testEntityManager.clear();
+
+        // Then
+        assertTrue(testEntityManager.getEntityManager().getEntityManagerFactory().getCache().contains(Employee.class, 3));
+    }
+
+    @Test
+    void givenCachedEmployee_whenUpdateAllInBatch_ThenEvictItFromTheSecondLevelCache() {
+        // Given
+        Employee employee = employeeRepository.findById(4).get();
+        testEntityManager.clear();
+        employee.setFirstName("Renamed");
+
+        // When
+        employeeRepository.updateAllInBatch(List.of(employee));
+        testEntityManager.clear();
+
+        // Then
+        assertFalse(testEntityManager.getEntityManager().getEntityManagerFactory().getCache().contains(Employee.class, 4));
+        assertEquals("Renamed", employeeRepository.findById(4).get().getFirstName());
+        assertTrue(employeeRepository.findAll().stream().anyMatch(cached -> cached.getFirstName().equals("Renamed")));
+    }
+
+    @Test
+    void givenEmployeeCachedConcurrently_whenUpdateAllInBatchCommits_ThenEvictItAgain() {
+        // Given
+        Employee employee = employeeRepository.findById(5).get();
+        employee.setFirstName("Renamed");
+        employeeRepository.updateAllInBatch(List.of(employee));
+        Cache cache = testEntityManager.getEntityManager().getEntityManagerFactory().getCache();
+        // Read before the commit, outside the transaction of the test, which caches the old row again
+        EntityManager concurrent = testEntityManager.getEntityManager().getEntityManagerFactory().createEntityManager();
+        try {
+            assertNotEquals("Renamed", concurrent.find(Employee.class, 5).getFirstName());
+        } finally {
+            concurrent.close();
+        }
+        assertTrue(cache.contains(Employee.class, 5));
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertFalse(cache.contains(Employee.class, 5));
+    }
+
+    @Test
+    void givenColdEmployees_whenArchive_ThenReadThemFromTheArchive() {
+        // Given
+        // We already have 20 records in the database that were inserted with Flyway migration
+        List<Employee> cold = employeeRepository.findByUpdatedAtBeforeOrderByIdAsc(LocalDateTime.of(2023, 9, 1, 0, 0), Limit.of(10));
+        List<Integer> ids = cold.stream().map(Employee::getId).toList();
+
+        // When
+        employeeArchiveRepository.archive(cold, LocalDateTime.now());
+        employeeRepository.deleteAllByIdInBatch(ids);
+
+        // Then
+        assertFalse(cold.isEmpty());
+        assertTrue(cold.stream().allMatch(employee -> employee.getUpdatedAt().isBefore(LocalDateTime.of(2023, 9, 1, 0, 0))));
+        assertEquals(20 - cold.size(), employeeRepository.count());
+        List<Employee> archived = employeeArchiveRepository.findAllById(ids);
+        archived.sort(Comparator.comparing(Employee::getId));
+        assertEquals(cold, archived);
+        assertEquals("Blayne", employeeArchiveRepository.findById(1).get().getFirstName());
+
+        assertTrue(employeeArchiveRepository.deleteById(1));
+        assertFalse(employeeArchiveRepository.findById(1).isPresent());
+        assertEquals(cold.size() - 1, employeeArchiveRepository.findAllById(ids).size());
+    }
+
+    @Test
+    void givenArchivedEmployee_whenDeleteAllInBatch_ThenForgetItFromTheArchive() {
+        // Given
+        Employee employee = employeeRepository.findById(1).get();
+        employeeArchiveRepository.archive(List.of(employee), LocalDateTime.now());
+        employeeRepository.deleteAllByIdInBatch(List.of(1));
+
+        // When
+        int[] deleteCounts = employeeRepository.deleteAllInBatch(List.of(1, 2, 100));
+
+        // Then
+        assertArrayEquals(new int[]{1, 1, 0}, deleteCounts);
+        assertFalse(employeeArchiveRepository.findById(1).isPresent());
+        employeeChangeRepository.relay(10);
+        assertEquals(List.of(1, 2), employeeChangeRepository.findSince(0, 10).stream()
+                .filter(change -> change.getOperation() == ChangeOperation.DELETED)
+                .map(EmployeeChange::getEmployeeId)
+                .toList());
+    }
+
+    @Test
+    void givenArchivedEmployee_whenRestore_ThenMoveItBackToTheTable() {
+        // Given
+        Employee employee = employeeRepository.findById(1).get();
+        employeeArchiveRepository.archive(List.of(employee), LocalDateTime.now());
+        employeeRepository.deleteAllByIdInBatch(List.of(1));
+        testEntityManager.clear();
+
+        // When
+        boolean restored = employeeArchiveRepository.restore(1);
+
+        // Then
+        assertTrue(restored);
+        assertEquals(employee, employeeRepository.findById(1).get());
+        assertFalse(employeeArchiveRepository.findById(1).isPresent());
+        assertFalse(employeeArchiveRepository.restore(1));
+        assertEquals(1, employeeRepository.updateAttributes(1, employee.getVersion(), Map.of("designation", "Manager"),
+                LocalDateTime.now()));
+    }
+
+    @Test
+    void givenStagedChanges_whenRelay_ThenNumberThemInOrder() {
+        // Given
+        employeeChangeRepository.insertAllInBatch(List.of(1, 2, 3), ChangeOperation.UPDATED, LocalDateTime.now());
+        assertTrue(employeeChangeRepository.findSince(0, 10).isEmpty());
+
+        // When
+        int first = employeeChangeRepository.relay(2);
+        int second = employeeChangeRepository.relay(2);
+
+        // Then
+        assertEquals(2, first);
+        assertEquals(1, second);
+        assertEquals(0, employeeChangeRepository.relay(2));
+        List<EmployeeChange> changes = employeeChangeRepository.findSince(0, 10);
+        assertEquals(List.of(1, 2, 3), changes.stream().map(EmployeeChange::getEmployeeId).toList());
+        assertEquals(changes.get(2).getSequence(), employeeChangeRepository.findLastSequence().getAsLong());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeArchiveServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EmployeeArchiveService employeeArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        employeeArchiveService = new EmployeeArchiveService(employeeRepository, employeeArchiveRepository,
+                transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(employeeArchiveService, "coldAfter", Duration.ofDays(730));
+        ReflectionTestUtils.setField(employeeArchiveService, "chunkSize", 2);
+    }
+
+    @Test
+    void givenColdEmployees_whenArchive_shouldMoveThemChunkByChunk() {
+        when(employeeRepository.findByUpdatedAtBeforeOrderByIdAsc(any(), eq(Limit.of(2))))
+                .thenReturn(List.of(employee(1), employee(2)))
+                .thenReturn(List.of(employee(3)));
+
+        long archived = employeeArchiveService.archiveColdEmployees();
+
+        assertEquals(3, archived);
+        verify(employeeArchiveRepository, times(2)).archive(any(), any(LocalDateTime.class));
+        verify(employeeRepository).deleteAllByIdInBatch(List.of(1, 2));
+        verify(employeeRepository).deleteAllByIdInBatch(List.of(3));
+    }
+
+    @Test
+    void givenNoColdEmployee_whenArchive_shouldArchiveNothing() {
+        when(employeeRepository.findByUpdatedAtBeforeOrderByIdAsc(any(), eq(Limit.of(2)))).thenReturn(List.of());
+
+        assertEquals(0, employeeArchiveService.archiveColdEmployees());
+        verify(employeeArchiveRepository, times(0)).archive(any(), any());
+    }
+
+    private static Employee employee(int id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setFirstName("Cold");
+        return employee;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.BatchItemStatus;
+import com.example.springboottemplate.dto.BatchResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeBatchServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
+    private EmployeeBatchService employeeBatchService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        employeeBatchService = new EmployeeBatchService(employeeRepository, employeeArchiveRepository, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(employeeBatchService, "chunkSize", 2);
+        ReflectionTestUtils.setField(employeeBatchService, "maxItems", 10);
+    }
+
+    @Test
+    void createEmployees() {
+        when(employeeRepository.insertAllInBatch(anyList())).thenReturn(new int[]{1, 1});
+        BatchResult batchResult = employeeBatchService.createEmployees(
+                List.of(employee(null, "John"), employee(null, ""), employee(null, "Jane")).iterator());
+
+        assertEquals(2, batchResult.getSucceeded());
+        assertEquals(1, batchResult.getFailed());
+        assertEquals(BatchItemStatus.CREATED, batchResult.getItems().get(0).getStatus());
+        assertEquals(BatchItemStatus.FAILED, batchResult.getItems().get(1).getStatus());
+        assertEquals(BatchItemStatus.CREATED, batchResult.getItems().get(2).getStatus());
+    }
+
+    @Test
+    void givenMoreThanMaxItems_whenCreateEmployees_shouldStopReadingAtMaxItems() {
+        ReflectionTestUtils.setField(employeeBatchService, "maxItems", 2);
+        when(employeeRepository.insertAllInBatch(anyList())).thenReturn(new int[]{1, 1});
+        Iterator<Employee> employees = List.of(employee(null, "John"), employee(null, "Jane"), employee(null, "Jim"),
+                employee(null, "Joe")).iterator();
+        BatchResult batchResult = employeeBatchService.createEmployees(employees);
+
+        assertEquals(2, batchResult.getSucceeded());
+        assertEquals(1, batchResult.getFailed());
+        assertEquals(3, batchResult.getItems().size());
+        assertEquals(2, batchResult.getItems().get(2).getIndex());
+        assertEquals(BatchItemStatus.FAILED, batchResult.getItems().get(2).getStatus());
+        assertTrue(employees.hasNext());
+    }
+
+    @Test
+    void updateEmployees() {
+        when(employeeRepository.updateAllInBatch(anyList())).thenReturn(new int[]{1, 0});
+        BatchResult batchResult = employeeBatchService.updateEmployees(
+                List.of(employee(1, "John"), employee(100, "Jane"), employee(null, "Nobody")).iterator());
+
+        assertEquals(1, batchResult.getSucceeded());
+        assertEquals(2, batchResult.getFailed());
+        assertEquals("Employee with id: 100 doesn't exist", batchResult.getItems().get(1).getError());
+        assertEquals("id must not be null", batchResult.getItems().get(2).getError());
+    }
+
+    @Test
+    void givenArchivedEmployee_whenUpdateEmployees_shouldRestoreItAndUpdateIt() {
+        Employee active = employee(1, "John");
+        Employee archived = employee(2, "Jane");
+        Employee missing = employee(3, "Nobody");
+        when(employeeRepository.updateAllInBatch(List.of(active, archived))).thenReturn(new int[]{1, 0});
+        when(employeeRepository.updateAllInBatch(List.of(missing))).thenReturn(new int[]{0});
+        when(employeeRepository.updateAllInBatch(List.of(archived))).thenReturn(new int[]{1});
+        when(employeeArchiveRepository.restore(2)).thenReturn(true);
+        BatchResult batchResult = employeeBatchService.updateEmployees(List.of(active, archived, missing).iterator());
+
+        assertEquals(2, batchResult.getSucceeded());
+        assertEquals(BatchItemStatus.UPDATED, batchResult.getItems().get(1).getStatus());
+        assertEquals("Employee with id: 3 doesn't exist", batchResult.getItems().get(2).getError());
+        verify(employeeArchiveRepository).restore(3);
+    }
+
+    @Test
+    void deleteEmployeesById() {
+        when(employeeRepository.deleteAllInBatch(List.of(1, 2))).thenThrow(new DataIntegrityViolationException("constraint"));
+        when(employeeRepository.deleteAllInBatch(List.of(1))).thenReturn(new int[]{1});
+        when(employeeRepository.deleteAllInBatch(List.of(2))).thenThrow(new DataIntegrityViolationException("constraint"));
+        BatchResult batchResult = employeeBatchService.deleteEmployeesById(List.of(1, 2).iterator());
+
+        assertEquals(1, batchResult.getSucceeded());
+        assertEquals(BatchItemStatus.DELETED, batchResult.getItems().get(0).getStatus());
+        assertEquals(BatchItemStatus.FAILED, batchResult.getItems().get(1).getStatus());
+    }
+
+    private static Employee employee(Integer id, String firstName) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setFirstName(firstName);
+        return employee;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.config.CacheConfig;
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeCacheInvalidatorTest {
+
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Mock
+    private EmployeeChangeService employeeChangeService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache employeesCache;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private jakarta.persistence.Cache secondLevelCache;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+
+    @Mock
+    private DataSource dataSource;
+
+    private EmployeeCacheInvalidator employeeCacheInvalidator;
+
+    @BeforeEach
+    void setUp() {
+        when(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE)).thenReturn(employeesCache);
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(hibernateCache);
+        employeeCacheInvalidator = new EmployeeCacheInvalidator(employeeChangeRepository, employeeChangeService, cacheManager,
+                entityManagerFactory, dataSource, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(employeeCacheInvalidator, "pollInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(employeeCacheInvalidator, "maxStaleness", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(employeeCacheInvalidator, "batchSize", 100);
+    }
+
+    @Test
+    void givenChanges_whenPoll_shouldEvictChangedEmployeesAndMovePastThem() {
+        LocalDateTime now = LocalDateTime.now();
+        when(employeeChangeRepository.findSince(0, 100)).thenReturn(List.of(
+                new EmployeeChange(1, 1, ChangeOperation.UPDATED, now, null),
+                new EmployeeChange(2, 2, ChangeOperation.DELETED, now, null)));
+
+        employeeCacheInvalidator.poll();
+        employeeCacheInvalidator.poll();
+
+        verify(employeesCache).evict(1);
+        verify(employeesCache).evict(2);
+        verify(secondLevelCache).evict(Employee.class, 1);
+        verify(secondLevelCache).evict(Employee.class, 2);
+        verify(hibernateCache).evictDefaultQueryRegion();
+        verify(employeeChangeRepository).findSince(2, 100);
+        verify(employeeChangeService, times(2)).relay();
+    }
+
+    @Test
+    void givenMissingSequence_whenPoll_shouldMovePastIt() {
+        LocalDateTime now = LocalDateTime.now();
+        when(employeeChangeRepository.findSince(0, 100)).thenReturn(List.of(
+                new EmployeeChange(1, 1, ChangeOperation.UPDATED, now, null),
+                new EmployeeChange(3, 3, ChangeOperation.UPDATED, now, null)));
+
+        employeeCacheInvalidator.poll();
+        employeeCacheInvalidator.poll();
+
+        verify(employeesCache).evict(3);
+        // Sequence 2 belongs to a relay that rolled back, no change can be relayed below 3 any more
+        verify(employeeChangeRepository).findSince(3, 100);
+    }
+
+    @Test
+    void givenUnreadableOutbox_whenPollPastMaxStaleness_shouldClearCaches() {
+        when(employeeChangeRepository.findSince(0, 100)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        employeeCacheInvalidator.poll();
+        verify(employeesCache, never()).clear();
+
+        ReflectionTestUtils.setField(employeeCacheInvalidator, "maxStaleness", Duration.ZERO);
+        employeeCacheInvalidator.poll();
+
+        verify(employeesCache).clear();
+        verify(secondLevelCache).evict(Employee.class);
+    }
+
+    @Test
+    void givenChanges_whenStart_shouldFollowFromTheLastOne() throws Exception {
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(employeeChangeRepository.findLastSequence()).thenReturn(OptionalLong.of(2));
+        when(employeeChangeRepository.findSince(2, 100)).thenReturn(List.of(
+                new EmployeeChange(3, 3, ChangeOperation.UPDATED, LocalDateTime.now(), null)));
+
+        employeeCacheInvalidator.start();
+        employeeCacheInvalidator.stop();
+        employeeCacheInvalidator.poll();
+
+        verify(employeesCache).evict(3);
+        verify(employeesCache, never()).evict(2);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeChange;
+import com.example.springboottemplate.dto.EmployeeChangePage;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.ChangesExpiredException;
+import com.example.springboottemplate.exception.InvalidLimitException;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeChangeServiceTest {
+
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private EmployeeChangeService employeeChangeService;
+
+    @BeforeEach
+    void setUp() {
+        employeeChangeService = new EmployeeChangeService(employeeChangeRepository, employeeRepository,
+                new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(employeeChangeService, "relayBatchSize", 2);
+        ReflectionTestUtils.setField(employeeChangeService, "maxPageSize", 500);
+    }
+
+    @Test
+    void givenChanges_whenGetChanges_shouldReturnCurrentStateOfEmployees() {
+        Employee employee = new Employee();
+        employee.setId(1);
+        employee.setFirstName("John");
+        LocalDateTime old = LocalDateTime.now().minusMinutes(1);
+        when(employeeChangeRepository.findFirstSequence()).thenReturn(OptionalLong.of(1));
+        when(employeeChangeRepository.findSince(0, 50)).thenReturn(List.of(
+                new EmployeeChange(1, 1, ChangeOperation.CREATED, old, null),
+                new EmployeeChange(2, 1, ChangeOperation.UPDATED, old, null),
+                new EmployeeChange(3, 2, ChangeOperation.DELETED, old, null)));
+        when(employeeRepository.findAllById(List.of(1))).thenReturn(List.of(employee));
+
+        EmployeeChangePage page = employeeChangeService.getChanges(0, 50);
+
+        assertEquals(3, page.getChanges().size());
+        assertEquals(3, page.getNextSince());
+        assertEquals("John", page.getChanges().get(0).getEmployee().getFirstName());
+        assertEquals("John", page.getChanges().get(1).getEmployee().getFirstName());
+        assertNull(page.getChanges().get(2).getEmployee());
+    }
+
+    @Test
+    void givenGap_whenGetChanges_shouldSkipIt() {
+        LocalDateTime now = LocalDateTime.now();
+        when(employeeChangeRepository.findFirstSequence()).thenReturn(OptionalLong.of(1));
+        when(employeeChangeRepository.findSince(10, 50)).thenReturn(List.of(
+                new EmployeeChange(11, 1, ChangeOperation.DELETED, now, null),
+                // 12 was allocated by a relay that rolled back, relayed changes never show up below the last one
+                new EmployeeChange(13, 2, ChangeOperation.DELETED, now, null)));
+
+        EmployeeChangePage page = employeeChangeService.getChanges(10, 50);
+
+        assertEquals(List.of(11L, 13L), page.getChanges().stream().map(EmployeeChange::getSequence).toList());
+        assertEquals(13, page.getNextSince());
+    }
+
+    @Test
+    void givenStagedChanges_whenRelay_shouldMoveThemBatchByBatch() {
+        when(employeeChangeRepository.relay(2)).thenReturn(2).thenReturn(1);
+
+        employeeChangeService.relay();
+
+        verify(employeeChangeRepository, times(2)).relay(2);
+    }
+
+    @Test
+    void givenStalledSubscriber_whenPublish_shouldDropItOnceItLagsForMaxSubscriberLag() {
+        LocalDateTime now = LocalDateTime.now();
+        ExecutorService stalledSender = mock(ExecutorService.class);
+        ReflectionTestUtils.setField(employeeChangeService, "sender", stalledSender);
+        ReflectionTestUtils.setField(employeeChangeService, "maxPageSize", 2);
+        ReflectionTestUtils.setField(employeeChangeService, "subscriberBuffer", 2);
+        ReflectionTestUtils.setField(employeeChangeService, "maxSubscriberLag", Duration.ZERO);
+        ReflectionTestUtils.setField(employeeChangeService, "sseTimeout", Duration.ofMinutes(1));
+        when(employeeChangeRepository.findFirstSequence()).thenReturn(OptionalLong.of(1));
+        when(employeeChangeRepository.findSince(0, 2)).thenReturn(List.of(
+                new EmployeeChange(1, 1, ChangeOperation.DELETED, now, null),
+                new EmployeeChange(2, 2, ChangeOperation.DELETED, now, null)));
+        employeeChangeService.subscribe(0);
+
+        // Queues a page, then finds the queue still full twice
+        employeeChangeService.publish();
+        employeeChangeService.publish();
+        assertEquals(1, meterRegistry.get("employee.changes.subscribers").gauge().value());
+        employeeChangeService.publish();
+
+        assertEquals(0, meterRegistry.get("employee.changes.subscribers").gauge().value());
+        verify(employeeChangeRepository, times(1)).findSince(0, 2);
+        // The send that never ran, then the completion of the stream
+        verify(stalledSender, times(2)).execute(any());
+    }
+
+    @Test
+    void givenNoNewChanges_whenGetChanges_shouldKeepSince() {
+        when(employeeChangeRepository.findFirstSequence()).thenReturn(OptionalLong.of(1));
+        when(employeeChangeRepository.findSince(7, 50)).thenReturn(List.of());
+
+        EmployeeChangePage page = employeeChangeService.getChanges(7, 50);
+
+        assertEquals(0, page.getChanges().size());
+        assertEquals(7, page.getNextSince());
+    }
+
+    @Test
+    void givenPrunedChanges_whenGetChanges_shouldThrowChangesExpiredException() {
+        when(employeeChangeRepository.findFirstSequence()).thenReturn(OptionalLong.of(100));
+
+        assertThrows(ChangesExpiredException.class, () -> employeeChangeService.getChanges(50, 50));
+        assertThrows(ChangesExpiredException.class, () -> employeeChangeService.subscribe(50));
+        assertEquals(0, employeeChangeService.getChanges(99, 50).getChanges().size());
+    }
+
+    @Test
+    void givenLimitBelowOne_whenGetChanges_shouldThrowInvalidLimitException() {
+        assertThrows(InvalidLimitException.class, () -> employeeChangeService.getChanges(0, 0));
+        assertThrows(InvalidLimitException.class, () -> employeeChangeService.getChanges(0, -1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.ImportResult;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.InvalidImportException;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeImportServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private final List<Employee> imported = new ArrayList<>();
+
+    private EmployeeImportService employeeImportService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        when(employeeRepository.importAll(any(), eq(2))).thenAnswer(invocation -> {
+            Iterator<Employee> employees = invocation.getArgument(0);
+            employees.forEachRemaining(imported::add);
+            return (long) imported.size();
+        });
+        employeeImportService = new EmployeeImportService(employeeRepository, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(employeeImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(employeeImportService, "maxReportedErrors", 1);
+    }
+
+    @Test
+    void givenInvalidEmployees_whenImportEmployees_shouldSkipThem() throws Exception {
+        String ndjson = """
+                {"id": 7, "firstName": "John", "version": 3}
+                {"firstName": ""}
+                {"firstName": "Jane", "age": "unknown"}
+                {"firstName": "Jane"}
+                """;
+
+        ImportResult result = employeeImportService.importEmployees(objectMapper.readerFor(Employee.class).readValues(ndjson));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertEquals("firstName must not be blank", result.getErrors().get(0).getError());
+        assertEquals(List.of("John", "Jane"), imported.stream().map(Employee::getFirstName).toList());
+        assertNull(imported.get(0).getId());
+        assertNull(imported.get(0).getVersion());
+    }
+
+    @Test
+    void givenTruncatedInput_whenImportEmployees_shouldThrowInvalidImportException() throws Exception {
+        String ndjson = """
+                {"firstName": "John"}
+                {"firstName": "Ja""";
+
+        assertThrows(InvalidImportException.class,
+                () -> employeeImportService.importEmployees(objectMapper.readerFor(Employee.class).readValues(ndjson)));
+    }
+}
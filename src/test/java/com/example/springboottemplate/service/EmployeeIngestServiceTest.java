@@ -0,0 +1,151 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.dto.IngestResult;
+import com.example.springboottemplate.dto.IngestStatus;
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.IngestQueueFullException;
+import com.example.springboottemplate.repository.EmployeeIngestRepository;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeIngestServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeIngestRepository employeeIngestRepository;
+
+    @TempDir
+    private Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private EmployeeIngestService employeeIngestService;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+        employeeIngestService = new EmployeeIngestService(employeeRepository, employeeIngestRepository, transactionTemplate,
+                objectMapper, new ConcurrentMapCacheManager(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(employeeIngestService, "queueCapacity", 2);
+        ReflectionTestUtils.setField(employeeIngestService, "batchSize", 10);
+        ReflectionTestUtils.setField(employeeIngestService, "journalFile", directory.resolve("ingest.journal"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (employeeIngestService.isRunning()) {
+            employeeIngestService.stop();
+        }
+    }
+
+    @Test
+    void givenFullQueue_whenAccept_shouldThrowIngestQueueFullException() {
+        // The writer is blocked until the database is back
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(employeeRepository).insertAllInBatch(anyList());
+        employeeIngestService.start();
+
+        IngestResult result = employeeIngestService.accept(employee("John"));
+        employeeIngestService.accept(employee("Jane"));
+
+        assertEquals(IngestStatus.PENDING, employeeIngestService.getStatus(result.getTrackingId()).getStatus());
+        assertThrows(IngestQueueFullException.class, () -> employeeIngestService.accept(employee("Jim")));
+    }
+
+    @Test
+    void givenJournalLeftByACrash_whenStart_shouldWriteTheEntriesNotWrittenYet() throws Exception {
+        Files.write(directory.resolve("ingest.journal"), List.of(
+                objectMapper.writeValueAsString(new EmployeeIngestService.JournalEntry("written", employee("John"))),
+                objectMapper.writeValueAsString(new EmployeeIngestService.JournalEntry("not-written", employee("Jane"))),
+                "{\"trackingId\":\"torn"));
+        when(employeeIngestRepository.findExistingIds(List.of("written", "not-written"))).thenReturn(Set.of("written"));
+
+        employeeIngestService.start();
+
+        verify(employeeRepository, timeout(5000)).insertAllInBatch(argThat(employees ->
+                employees.size() == 1 && employees.get(0).getFirstName().equals("Jane")));
+    }
+
+    @Test
+    void givenRejectedEmployee_whenWritten_shouldRecordItAsFailed() {
+        when(employeeRepository.insertAllInBatch(anyList())).thenAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            if (employees.stream().anyMatch(employee -> employee.getFirstName().equals("Duplicate"))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            return new int[employees.size()];
+        });
+        ReflectionTestUtils.setField(employeeIngestService, "queueCapacity", 10);
+        employeeIngestService.start();
+
+        IngestResult rejected = employeeIngestService.accept(employee("Duplicate"));
+
+        verify(employeeIngestRepository, timeout(5000)).insertAllInBatch(
+                eq(List.of(new IngestResult(rejected.getTrackingId(), IngestStatus.FAILED, null, "duplicate"))), any());
+    }
+
+    @Test
+    void givenFailedForce_whenAccept_shouldDropTheEmployeeFromTheJournal() throws Exception {
+        // The writer is blocked until the database is back, the journal is not truncated
+        doThrow(new DataAccessResourceFailureException("down"))
+                .when(employeeRepository).insertAllInBatch(anyList());
+        employeeIngestService.start();
+        IngestResult accepted = employeeIngestService.accept(employee("John"));
+        FileChannel journal = spy((FileChannel) ReflectionTestUtils.getField(employeeIngestService, "journal"));
+        doThrow(new IOException("disk full")).when(journal).force(false);
+        ReflectionTestUtils.setField(employeeIngestService, "journal", journal);
+
+        assertThrows(UncheckedIOException.class, () -> employeeIngestService.accept(employee("Jane")));
+
+        List<String> lines = Files.readAllLines(directory.resolve("ingest.journal"));
+        assertEquals(1, lines.size());
+        assertEquals(accepted.getTrackingId(),
+                objectMapper.readValue(lines.get(0), EmployeeIngestService.JournalEntry.class).trackingId());
+    }
+
+    private static Employee employee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        return employee;
+    }
+}
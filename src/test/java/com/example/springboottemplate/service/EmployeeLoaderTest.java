@@ -0,0 +1,141 @@
+package com.example.springboottemplate.service;
+
+import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.repository.EmployeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+class EmployeeLoaderTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private EmployeeLoader employeeLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeLoader = new EmployeeLoader(employeeRepository, new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(employeeLoader, "batchWindow", Duration.ZERO);
+        ReflectionTestUtils.setField(employeeLoader, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(employeeLoader, "loaderThreads", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeLoader.stop();
+    }
+
+    @Test
+    void givenReadInProgress_whenFindById_shouldShareIt() throws Exception {
+        Employee employee = employee(1);
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(employeeRepository.findById(1)).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(employee);
+        });
+        employeeLoader.start();
+
+        CompletableFuture<Optional<Employee>> first = CompletableFuture.supplyAsync(() -> employeeLoader.findById(1));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<Employee>> second = CompletableFuture.supplyAsync(() -> employeeLoader.findById(1));
+        while (meterRegistry.counter("employee.coalescing.shared", "read", "by-id").count() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertSame(employee, first.get(5, TimeUnit.SECONDS).orElseThrow());
+        assertSame(employee, second.get(5, TimeUnit.SECONDS).orElseThrow());
+        verify(employeeRepository, times(1)).findById(1);
+    }
+
+    @Test
+    void givenReadsWithinWindow_whenFindById_shouldReadThemInOneQuery() throws Exception {
+        ReflectionTestUtils.setField(employeeLoader, "batchWindow", Duration.ofMillis(500));
+        when(employeeRepository.findAllByIdInChunks(anyList(), eq(100))).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> id == 3 ? null : employee(id)).toList();
+        });
+        employeeLoader.start();
+
+        List<CompletableFuture<Optional<Employee>>> reads = List.of(1, 2, 3).stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> employeeLoader.findById(id)))
+                .toList();
+
+        assertEquals(1, reads.get(0).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertEquals(2, reads.get(1).get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertTrue(reads.get(2).get(5, TimeUnit.SECONDS).isEmpty());
+        verify(employeeRepository, times(1)).findAllByIdInChunks(anyList(), eq(100));
+        assertEquals(3, meterRegistry.summary("employee.coalescing.batch.size").totalAmount());
+    }
+
+    @Test
+    void givenFullBatch_whenFindById_shouldNotWaitForTheWindow() throws Exception {
+        ReflectionTestUtils.setField(employeeLoader, "batchWindow", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(employeeLoader, "maxBatchSize", 2);
+        when(employeeRepository.findAllByIdInChunks(anyList(), eq(2))).thenAnswer(invocation -> {
+            List<Integer> ids = invocation.getArgument(0);
+            return ids.stream().map(EmployeeLoaderTest::employee).toList();
+        });
+        employeeLoader.start();
+
+        CompletableFuture<Optional<Employee>> first = CompletableFuture.supplyAsync(() -> employeeLoader.findById(1));
+        CompletableFuture<Optional<Employee>> second = CompletableFuture.supplyAsync(() -> employeeLoader.findById(2));
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        assertEquals(2, second.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+    }
+
+    @Test
+    void givenStoppedExecutor_whenFindById_shouldReadTheEmployeeOnItsOwn() {
+        ReflectionTestUtils.setField(employeeLoader, "batchWindow", Duration.ofMillis(500));
+        employeeLoader.start();
+        ScheduledExecutorService executor = (ScheduledExecutorService) ReflectionTestUtils.getField(employeeLoader, "executor");
+        executor.shutdown();
+        when(employeeRepository.findById(1)).thenReturn(Optional.of(employee(1)));
+
+        assertEquals(1, employeeLoader.findById(1).orElseThrow().getId());
+        assertEquals(1, employeeLoader.findById(1).orElseThrow().getId());
+        verify(employeeRepository, times(2)).findById(1);
+    }
+
+    private static Employee employee(Integer id) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setFirstName("Employee " + id);
+        return employee;
+    }
+}
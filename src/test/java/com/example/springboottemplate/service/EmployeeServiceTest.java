@@ -1,21 +1,44 @@
 package com.example.springboottemplate.service;
 
+import com.example.springboottemplate.dto.ChangeOperation;
+import com.example.springboottemplate.dto.EmployeeMultiGetResult;
+import com.example.springboottemplate.dto.EmployeePage;
+import com.example.springboottemplate.dto.EmployeeProjectionPage;
+import com.example.springboottemplate.dto.EmployeeSearchCriteria;
 import com.example.springboottemplate.entity.Employee;
+import com.example.springboottemplate.exception.EmployeeNotFoundException;
+import com.example.springboottemplate.exception.EmployeeVersionConflictException;
+import com.example.springboottemplate.exception.InvalidSortException;
+import com.example.springboottemplate.exception.TooManyIdsException;
+import com.example.springboottemplate.repository.EmployeeArchiveRepository;
+import com.example.springboottemplate.repository.EmployeeChangeRepository;
 import com.example.springboottemplate.repository.EmployeeRepository;
+import com.example.springboottemplate.repository.EmployeeSortField;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -24,6 +47,15 @@ class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EmployeeChangeRepository employeeChangeRepository;
+
+    @Mock
+    private EmployeeArchiveRepository employeeArchiveRepository;
+
+    @Mock
+    private EmployeeLoader employeeLoader;
+
     @InjectMocks
     private EmployeeService employeeService;
 
@@ -35,6 +67,9 @@ class EmployeeServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(employeeService, "defaultPageSize", 50);
+        ReflectionTestUtils.setField(employeeService, "maxPageSize", 500);
+
         employee1 = new Employee();
         employee1.setId(1);
         employee1.setFirstName("John");
@@ -66,37 +101,165 @@ class EmployeeServiceTest {
 
     @Test
     void getAllEmployees() {
-        when(employeeRepository.findAll()).thenReturn(employeeList);
+        when(employeeLoader.findAll()).thenReturn(employeeList);
         List<Employee> employeeList = employeeService.getAllEmployees();
         assertEquals(2, employeeList.size());
     }
 
+    @Test
+    void getEmployeePage() {
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2))).thenReturn(employeeList);
+        EmployeePage firstPage = employeeService.getEmployeePage(null, 2);
+        assertEquals(2, firstPage.getEmployees().size());
+
+        when(employeeRepository.findByIdGreaterThanOrderByIdAsc(2, Limit.of(2))).thenReturn(List.of());
+        EmployeePage lastPage = employeeService.getEmployeePage(firstPage.getNextCursor(), 2);
+        assertEquals(0, lastPage.getEmployees().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void searchEmployees() {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria();
+        criteria.setSort("lastName,desc");
+        when(employeeRepository.search(any(), eq(EmployeeSortField.LAST_NAME), eq(Sort.Direction.DESC), isNull(), isNull(), eq(Limit.of(2))))
+                .thenReturn(employeeList);
+        EmployeePage firstPage = employeeService.searchEmployees(criteria, null, 2);
+        assertEquals(2, firstPage.getEmployees().size());
+
+        when(employeeRepository.search(any(), eq(EmployeeSortField.LAST_NAME), eq(Sort.Direction.DESC), eq("Doe"), eq(2), eq(Limit.of(2))))
+                .thenReturn(List.of(employee1));
+        EmployeePage lastPage = employeeService.searchEmployees(criteria, firstPage.getNextCursor(), 2);
+        assertEquals(1, lastPage.getEmployees().size());
+        assertNull(lastPage.getNextCursor());
+
+        criteria.setSort("phoneNumber");
+        assertThrows(InvalidSortException.class, () -> employeeService.searchEmployees(criteria, null, 2));
+    }
+
+    @Test
+    void searchEmployeesWithAttributes() {
+        EmployeeSearchCriteria criteria = new EmployeeSearchCriteria();
+        criteria.setSort("age");
+        Map<String, Object> row = new LinkedHashMap<>(Map.of("id", 2, "firstName", "Jane", "age", 30));
+        when(employeeRepository.searchAttributes(any(), eq(EmployeeSortField.AGE), eq(Sort.Direction.ASC), isNull(), isNull(),
+                eq(Limit.of(1)), eq(Set.of("id", "firstName", "age")))).thenReturn(List.of(row));
+
+        EmployeeProjectionPage page = employeeService.searchEmployees(criteria, null, 1, List.of("firstName"));
+
+        assertEquals(List.of(Map.of("id", 2, "firstName", "Jane")), page.getEmployees());
+        when(employeeRepository.searchAttributes(any(), eq(EmployeeSortField.AGE), eq(Sort.Direction.ASC), eq(30), eq(2),
+                eq(Limit.of(1)), any())).thenReturn(List.of());
+        assertEquals(0, employeeService.searchEmployees(criteria, page.getNextCursor(), 1, List.of("firstName")).getEmployees().size());
+    }
+
     @Test
     void getEmployeeById() {
-        when(employeeRepository.findById(1)).thenReturn(java.util.Optional.of(employee1));
+        when(employeeLoader.findById(1)).thenReturn(java.util.Optional.of(employee1));
         Employee employee = employeeService.getEmployeeById(1);
         assertEquals("John", employee.getFirstName());
     }
 
+    @Test
+    void getArchivedEmployeeById() {
+        when(employeeLoader.findById(1)).thenReturn(java.util.Optional.empty());
+        when(employeeArchiveRepository.findById(1)).thenReturn(java.util.Optional.of(employee1));
+        assertEquals("John", employeeService.getEmployeeById(1).getFirstName());
+        assertNull(employeeService.getEmployeeById(2));
+    }
+
+    @Test
+    void getEmployeesByIds() {
+        ReflectionTestUtils.setField(employeeService, "maxMultiGetIds", 10);
+        ReflectionTestUtils.setField(employeeService, "multiGetChunkSize", 2);
+        when(employeeRepository.findAllByIdInChunks(List.of(2, 3, 1, 4), 2))
+                .thenReturn(java.util.Arrays.asList(employee2, null, null, null));
+        when(employeeArchiveRepository.findAllById(List.of(3, 1, 4))).thenReturn(List.of(employee1));
+
+        EmployeeMultiGetResult result = employeeService.getEmployeesByIds(List.of(2, 3, 1, 2, 4));
+
+        assertEquals(List.of(employee2, employee1), result.getEmployees());
+        assertEquals(List.of(3, 4), result.getMissingIds());
+    }
+
+    @Test
+    void givenTooManyIds_whenGetEmployeesByIds_shouldThrow() {
+        ReflectionTestUtils.setField(employeeService, "maxMultiGetIds", 2);
+        assertThrows(TooManyIdsException.class, () -> employeeService.getEmployeesByIds(List.of(1, 2, 3)));
+    }
+
     @Test
     void saveEmployee() {
-        when(employeeRepository.save(employee1)).thenReturn(employee1);
+        // The id is assigned by the database
+        when(employeeRepository.save(employee1)).thenAnswer(invocation -> {
+            employee1.setId(1);
+            return employee1;
+        });
         Employee savedEmployee = employeeService.saveEmployee(employee1);
         assertEquals("John", savedEmployee.getFirstName());
+        Mockito.verify(employeeChangeRepository).insertAllInBatch(eq(List.of(1)), eq(ChangeOperation.CREATED), any());
     }
 
     @Test
     void updateEmployee() {
         when(employeeRepository.findById(1)).thenReturn(java.util.Optional.of(employee1));
-        when(employeeRepository.save(employee1)).thenReturn(employee1);
+        when(employeeRepository.saveAndFlush(employee1)).thenReturn(employee1);
         Employee updatedEmployee = employeeService.updateEmployee(employee1);
         assertEquals("John", updatedEmployee.getFirstName());
     }
 
+    @Test
+    void updateMissingEmployee() {
+        when(employeeRepository.findById(1)).thenReturn(java.util.Optional.empty());
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.updateEmployee(employee1));
+    }
+
+    @Test
+    void updateArchivedEmployee() {
+        when(employeeRepository.findById(1)).thenReturn(java.util.Optional.empty()).thenReturn(java.util.Optional.of(employee1));
+        when(employeeArchiveRepository.restore(1)).thenReturn(true);
+        when(employeeRepository.saveAndFlush(employee1)).thenReturn(employee1);
+        assertEquals("John", employeeService.updateEmployee(employee1).getFirstName());
+        Mockito.verify(employeeChangeRepository).insertAllInBatch(eq(List.of(1)), eq(ChangeOperation.UPDATED), any());
+    }
+
+    @Test
+    void patchArchivedEmployee() {
+        Map<String, Object> values = Map.of("designation", "Manager");
+        when(employeeRepository.updateAttributes(eq(1), eq(3), eq(values), any())).thenReturn(0, 1);
+        when(employeeArchiveRepository.restore(1)).thenReturn(true);
+        assertEquals(4, employeeService.patchEmployee(1, 3, values));
+        Mockito.verify(employeeRepository, Mockito.times(2)).updateAttributes(eq(1), eq(3), eq(values), any());
+    }
+
+    @Test
+    void patchEmployee() {
+        Map<String, Object> values = Map.of("designation", "Manager");
+        when(employeeRepository.updateAttributes(eq(1), eq(3), eq(values), any())).thenReturn(1);
+        assertEquals(4, employeeService.patchEmployee(1, 3, values));
+
+        when(employeeRepository.updateAttributes(eq(1), eq(2), eq(values), any())).thenReturn(0);
+        when(employeeRepository.existsById(1)).thenReturn(true);
+        assertThrows(EmployeeVersionConflictException.class, () -> employeeService.patchEmployee(1, 2, values));
+
+        when(employeeRepository.updateAttributes(eq(5), eq(2), eq(values), any())).thenReturn(0);
+        when(employeeRepository.existsById(5)).thenReturn(false);
+        assertThrows(EmployeeNotFoundException.class, () -> employeeService.patchEmployee(5, 2, values));
+    }
+
     @Test
     void deleteEmployeeById() {
         when(employeeRepository.findById(1)).thenReturn(java.util.Optional.of(employee1));
         employeeService.deleteEmployeeById(1);
-        Mockito.verify(employeeRepository, Mockito.times(1)).deleteById(1);
+        Mockito.verify(employeeRepository, Mockito.times(1)).delete(employee1);
+        Mockito.verify(employeeArchiveRepository).deleteById(1);
+        Mockito.verify(employeeChangeRepository).insertAllInBatch(eq(List.of(1)), eq(ChangeOperation.DELETED), any());
+    }
+
+    @Test
+    void givenUnknownId_whenDeleteEmployeeById_shouldNotRecordChange() {
+        employeeService.deleteEmployeeById(1);
+        Mockito.verify(employeeArchiveRepository).deleteById(1);
+        Mockito.verify(employeeChangeRepository, Mockito.never()).insertAllInBatch(any(), any(), any());
     }
 }
\ No newline at end of file